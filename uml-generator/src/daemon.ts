@@ -0,0 +1,143 @@
+import { ChildProcessWithoutNullStreams, spawn } from 'child_process';
+
+export interface GenerateRequest {
+    input: string;
+    output: string;
+    includeRelationships: boolean;
+    verbose: boolean;
+}
+
+export interface DaemonResponse {
+    id?: number;
+    ok: boolean;
+    error?: string;
+    output?: string;
+    // null when the diagram was too large to encode
+    url?: string | null;
+    millis?: number;
+}
+
+interface PendingRequest {
+    resolve: (response: DaemonResponse) => void;
+    reject: (error: Error) => void;
+}
+
+/**
+ * One daemon process with the requests sent to it and not answered yet.
+ */
+interface DaemonProcess {
+    child: ChildProcessWithoutNullStreams;
+    jarPath: string;
+    // in the order sent; the daemon answers one request at a time, in order
+    pending: Map<number, PendingRequest>;
+    buffer: string;
+}
+
+/**
+ * Keeps one `java -jar uml-generator.jar --daemon` process alive and sends it
+ * JSON-lines requests, so repeated generations reuse a warm JVM and the
+ * daemon's in-memory parse cache.
+ */
+export class UMLDaemonClient {
+    private daemon: DaemonProcess | null = null;
+    private nextId = 1;
+
+    constructor(private readonly javaExecutable: string, private readonly log: (message: string) => void) {}
+
+    async generate(jarPath: string, request: GenerateRequest): Promise<DaemonResponse> {
+        const daemon = this.ensureStarted(jarPath);
+        const id = this.nextId++;
+
+        return new Promise<DaemonResponse>((resolve, reject) => {
+            daemon.pending.set(id, { resolve, reject });
+            daemon.child.stdin.write(JSON.stringify({ id, command: 'generate', ...request }) + '\n');
+        });
+    }
+
+    dispose() {
+        if (this.daemon) {
+            // requests already sent are still answered before the daemon shuts down
+            this.daemon.child.stdin.write(JSON.stringify({ id: this.nextId++, command: 'shutdown' }) + '\n');
+            this.daemon.child.stdin.end();
+            this.daemon = null;
+        }
+    }
+
+    private ensureStarted(jarPath: string): DaemonProcess {
+        // Restart when the configured JAR changes
+        if (this.daemon && this.daemon.jarPath !== jarPath) {
+            this.dispose();
+        }
+        if (this.daemon) {
+            return this.daemon;
+        }
+
+        const daemon: DaemonProcess = {
+            child: spawn(this.javaExecutable, ['-jar', jarPath, '--daemon']),
+            jarPath,
+            pending: new Map<number, PendingRequest>(),
+            buffer: ''
+        };
+        this.daemon = daemon;
+
+        daemon.child.stdout.on('data', (data) => this.onData(daemon, data.toString()));
+        daemon.child.stderr.on('data', (data) => this.log(data.toString()));
+        daemon.child.on('error', (error) => this.onExit(daemon, `Failed to start UML daemon: ${error.message}`));
+        daemon.child.on('close', (code) => this.onExit(daemon, `UML daemon exited with code ${code}`));
+
+        return daemon;
+    }
+
+    private onData(daemon: DaemonProcess, chunk: string) {
+        daemon.buffer += chunk;
+        let newline: number;
+        while ((newline = daemon.buffer.indexOf('\n')) >= 0) {
+            const line = daemon.buffer.substring(0, newline).trim();
+            daemon.buffer = daemon.buffer.substring(newline + 1);
+            if (line) {
+                this.onLine(daemon, line);
+            }
+        }
+    }
+
+    private onLine(daemon: DaemonProcess, line: string) {
+        let response: DaemonResponse;
+        try {
+            response = JSON.parse(line);
+        } catch {
+            this.log(`Ignoring malformed daemon output: ${line}`);
+            return;
+        }
+
+        let id = response.id;
+        if (id === undefined) {
+            if (response.ok !== false) {
+                return; // ready event
+            }
+            // The daemon could not read the request, so it could not echo its id;
+            // requests are answered in order, so this is the oldest one still open
+            id = daemon.pending.keys().next().value;
+            if (id === undefined) {
+                this.log(`Daemon error without a request: ${response.error}`);
+                return;
+            }
+        }
+        const request = daemon.pending.get(id);
+        if (request) {
+            daemon.pending.delete(id);
+            request.resolve(response);
+        }
+    }
+
+    private onExit(daemon: DaemonProcess, reason: string) {
+        if (this.daemon === daemon) {
+            this.daemon = null;
+        }
+        this.log(reason);
+        // only this process's requests; a replacement daemon keeps its own
+        for (const request of daemon.pending.values()) {
+            request.reject(new Error(reason));
+        }
+        daemon.pending.clear();
+    }
+}
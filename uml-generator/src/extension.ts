@@ -3,6 +3,9 @@ import * as vscode from 'vscode';
 import * as FileSystem from 'fs';
 import { spawn } from 'child_process';
 import * as https from 'https';
+import { UMLDaemonClient } from './daemon';
+
+let daemonClient: UMLDaemonClient | null = null;
 
 export function activate(context: vscode.ExtensionContext) {
     registerCommands(context);
@@ -11,6 +14,8 @@ export function activate(context: vscode.ExtensionContext) {
 interface UMLMetadata {
     encoded: string;
     url: string;
+    // set instead of encoded/url when the generator skipped encoding
+    urlOmitted?: string;
     generatedOn: string;
     content: string;
 }
@@ -20,7 +25,9 @@ async function openPlantUMLPreview(uri: vscode.Uri, context: vscode.ExtensionCon
         const content = FileSystem.readFileSync(uri.fsPath, 'utf-8');
         const metadata = extractUMLMetadata(content);
 
-        if (metadata) {
+        if (metadata && metadata.urlOmitted) {
+            vscode.window.showInformationMessage(`No PlantUML server preview for this diagram (${metadata.urlOmitted}). Open the .puml file with a local PlantUML renderer instead.`);
+        } else if (metadata) {
             // Create a webview panel to display the UML
             const panel = vscode.window.createWebviewPanel(
                 'plantUMLPreview',
@@ -66,6 +73,7 @@ function extractUMLMetadata(content: string): UMLMetadata | null {
     const lines = content.split('\n');
     let encoded = '';
     let url = '';
+    let urlOmitted = '';
     let generatedOn = '';
 
     // Extract metadata from comments
@@ -74,6 +82,8 @@ function extractUMLMetadata(content: string): UMLMetadata | null {
             encoded = line.replace("' Encoded: ", '').trim();
         } else if (line.startsWith("' URL: ")) {
             url = line.replace("' URL: ", '').trim();
+        } else if (line.startsWith("' URL omitted: ")) {
+            urlOmitted = line.replace("' URL omitted: ", '').trim();
         } else if (line.startsWith("' Generated on: ")) {
             generatedOn = line.replace("' Generated on: ", '').trim();
         }
@@ -88,6 +98,16 @@ function extractUMLMetadata(content: string): UMLMetadata | null {
         };
     }
 
+    if (urlOmitted) {
+        return {
+            encoded: '',
+            url: '',
+            urlOmitted,
+            generatedOn,
+            content: content.replace(/^'.*/gm, '').trim()
+        };
+    }
+
     return null;
 }
 
@@ -358,103 +378,29 @@ async function generateUMLFromPath(inputPath: string, isFolder: boolean, options
                         FileSystem.mkdirSync(outputDir, { recursive: true });
                     }
 
-                    const args = ['-jar', jarPath, '-i', inputPath, '-o', outputFile];
-                    if (!options.includeRelationships) {
-                        args.push('--no-relationship');
-                    }
-                    if (options.verbose) {
-                        args.push('-v');
-                    }
-
-                    // Debug logging
-                    console.log(`Running command: java ${args.join(' ')}`);
-                    console.log(`Expected output file: ${outputFile}`);
-
                     progress.report({ increment: 25, message: "Running UML generator..." });
 
-                    const javaProcess = spawn('java', args, {
-                        cwd: path.dirname(jarPath)
-                    });
-
-                    let output = '';
-                    let errorOutput = '';
-
-                    javaProcess.stdout?.on('data', (data) => {
-                        output += data.toString();
-                        if (options.verbose) {
-                            console.log(`stdout: ${data}`);
+                    if (config.get<boolean>('useDaemon', true)) {
+                        console.log(`Sending generate request to UML daemon: ${inputPath} -> ${outputFile}`);
+                        const response = await getDaemonClient().generate(jarPath, {
+                            input: inputPath,
+                            output: outputFile,
+                            includeRelationships: options.includeRelationships,
+                            verbose: options.verbose
+                        });
+                        if (!response.ok) {
+                            throw new Error(`UML daemon failed: ${response.error || 'No error output'}`);
                         }
-                    });
+                        console.log(`UML daemon finished in ${response.millis} ms`);
+                    } else {
+                        await runJavaProcess(jarPath, inputPath, outputFile, options);
+                    }
 
-                    javaProcess.stderr?.on('data', (data) => {
-                        errorOutput += data.toString();
-                        if (options.verbose) {
-                            console.error(`stderr: ${data}`);
-                        }
-                    });
-
-                    javaProcess.on('close', async (code) => {
-                        try {
-                            progress.report({ increment: 75, message: "Processing results..." });
-
-                            console.log(`Java process exited with code: ${code}`);
-                            console.log(`stdout: ${output}`);
-                            console.log(`stderr: ${errorOutput}`);
-                            console.log(`Output file exists: ${FileSystem.existsSync(outputFile)}`);
-
-                            if (code !== 0) {
-                                throw new Error(`Java process failed with code ${code}. Error: ${errorOutput || 'No error output'}`);
-                            }
-
-                            if (!FileSystem.existsSync(outputFile)) {
-                                throw new Error(`Output file was not created: ${outputFile}`);
-                            }
-
-                            const fileStats = FileSystem.statSync(outputFile);
-                            if (fileStats.size === 0) {
-                                throw new Error(`Output file is empty: ${outputFile}`);
-                            }
-
-                            const generatedContent = FileSystem.readFileSync(outputFile, 'utf8');
-                            if (!generatedContent.trim()) {
-                                throw new Error(`Output file contains no content: ${outputFile}`);
-                            }
-
-                            if (!generatedContent.includes('@startuml') || !generatedContent.includes('@enduml')) {
-                                throw new Error(`Output file does not contain valid PlantUML content: ${outputFile}`);
-                            }
-
-                            // Extract metadata for enhanced message
-                            const metadata = extractUMLMetadata(generatedContent);
-                            const urlMessage = metadata ? ` (URL: ${metadata.url})` : '';
-
-                            // Success!
-                            const message = `UML diagram generated successfully: ${outputFile}${urlMessage}`;
-
-                            vscode.window.showInformationMessage(message, 'Open File', 'Open Preview', 'Open Folder').then(selection => {
-                                if (selection === "Open File") {
-                                    vscode.commands.executeCommand('vscode.open', vscode.Uri.file(outputFile));
-                                } else if (selection === "Open Preview") {
-                                    vscode.commands.executeCommand('umlGenerator.openWebView', vscode.Uri.file(outputFile));
-                                } else if (selection === "Open Folder") {
-                                    vscode.commands.executeCommand('revealFileInOS', vscode.Uri.file(outputFile));
-                                }
-                            });
-
-                            if (options.autoOpenFile) {
-                                await vscode.commands.executeCommand('vscode.open', vscode.Uri.file(outputFile));
-                            }
-
-                            progress.report({ increment: 100, message: "Done!" });
-                            resolve();
-                        } catch (error) {
-                            reject(error);
-                        }
-                    });
+                    progress.report({ increment: 75, message: "Processing results..." });
+                    await processGeneratedOutput(outputFile, options);
 
-                    javaProcess.on('error', (error) => {
-                        reject(new Error(`Failed to start java process: ${error.message}`));
-                    });
+                    progress.report({ increment: 100, message: "Done!" });
+                    resolve();
 
                 } catch (error) {
                     reject(error);
@@ -464,6 +410,109 @@ async function generateUMLFromPath(inputPath: string, isFolder: boolean, options
     });
 }
 
+function getDaemonClient(): UMLDaemonClient {
+    if (!daemonClient) {
+        const javaExecutable = vscode.workspace.getConfiguration('umlGenerator').get<string>('javaExecutable', 'java');
+        daemonClient = new UMLDaemonClient(javaExecutable || 'java', message => console.log(`daemon: ${message}`));
+    }
+    return daemonClient;
+}
+
+function runJavaProcess(jarPath: string, inputPath: string, outputFile: string, options: UMLGeneratorOptions): Promise<void> {
+    return new Promise<void>((resolve, reject) => {
+        const args = ['-jar', jarPath, '-i', inputPath, '-o', outputFile];
+        if (!options.includeRelationships) {
+            args.push('--no-relationships');
+        }
+        if (options.verbose) {
+            args.push('-v');
+        }
+
+        // Debug logging
+        console.log(`Running command: java ${args.join(' ')}`);
+        console.log(`Expected output file: ${outputFile}`);
+
+        const javaProcess = spawn('java', args, {
+            cwd: path.dirname(jarPath)
+        });
+
+        let output = '';
+        let errorOutput = '';
+
+        javaProcess.stdout?.on('data', (data) => {
+            output += data.toString();
+            if (options.verbose) {
+                console.log(`stdout: ${data}`);
+            }
+        });
+
+        javaProcess.stderr?.on('data', (data) => {
+            errorOutput += data.toString();
+            if (options.verbose) {
+                console.error(`stderr: ${data}`);
+            }
+        });
+
+        javaProcess.on('close', (code) => {
+            console.log(`Java process exited with code: ${code}`);
+            console.log(`stdout: ${output}`);
+            console.log(`stderr: ${errorOutput}`);
+            console.log(`Output file exists: ${FileSystem.existsSync(outputFile)}`);
+
+            if (code !== 0) {
+                reject(new Error(`Java process failed with code ${code}. Error: ${errorOutput || 'No error output'}`));
+            } else {
+                resolve();
+            }
+        });
+
+        javaProcess.on('error', (error) => {
+            reject(new Error(`Failed to start java process: ${error.message}`));
+        });
+    });
+}
+
+async function processGeneratedOutput(outputFile: string, options: UMLGeneratorOptions) {
+    if (!FileSystem.existsSync(outputFile)) {
+        throw new Error(`Output file was not created: ${outputFile}`);
+    }
+
+    const fileStats = FileSystem.statSync(outputFile);
+    if (fileStats.size === 0) {
+        throw new Error(`Output file is empty: ${outputFile}`);
+    }
+
+    const generatedContent = FileSystem.readFileSync(outputFile, 'utf8');
+    if (!generatedContent.trim()) {
+        throw new Error(`Output file contains no content: ${outputFile}`);
+    }
+
+    if (!generatedContent.includes('@startuml') || !generatedContent.includes('@enduml')) {
+        throw new Error(`Output file does not contain valid PlantUML content: ${outputFile}`);
+    }
+
+    // Extract metadata for enhanced message
+    const metadata = extractUMLMetadata(generatedContent);
+    const urlMessage = metadata?.url ? ` (URL: ${metadata.url})` : '';
+
+    // Success!
+    const message = `UML diagram generated successfully: ${outputFile}${urlMessage}`;
+
+    vscode.window.showInformationMessage(message, 'Open File', 'Open Preview', 'Open Folder').then(selection => {
+        if (selection === "Open File") {
+            vscode.commands.executeCommand('vscode.open', vscode.Uri.file(outputFile));
+        } else if (selection === "Open Preview") {
+            vscode.commands.executeCommand('umlGenerator.openWebView', vscode.Uri.file(outputFile));
+        } else if (selection === "Open Folder") {
+            vscode.commands.executeCommand('revealFileInOS', vscode.Uri.file(outputFile));
+        }
+    });
+
+    if (options.autoOpenFile) {
+        await vscode.commands.executeCommand('vscode.open', vscode.Uri.file(outputFile));
+    }
+}
+
 async function getJarPath(): Promise<string | null> {
     const config = vscode.workspace.getConfiguration('umlGenerator');
     const customJarPath = config.get<string>('jarPath');
@@ -539,5 +588,7 @@ async function getJarPath(): Promise<string | null> {
 }
 
 export function deactivate() {
+    daemonClient?.dispose();
+    daemonClient = null;
     console.log('UML Generator extension is now deactivated');
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import model.ClassModel;
+import model.ClassSummary;
+import model.UMLModel;
+
+/**
+ * Phase 2: RelationshipAnalyzer.analyzeAllRelationships on a parsed corpus
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalyzeBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class ParsedCorpus extends CorpusState {
+        List<ClassModel> classes;
+        List<ClassSummary> summaries;
+        UMLModel umlModel;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            classes = parser.getUmlModel().getClasses();
+            summaries = parser.getAllClassSummaries();
+        }
+
+        // The analyzer adds to the model, so each call needs a model without relationships
+        @Setup(Level.Invocation)
+        public void freshModel() {
+            umlModel = new UMLModel();
+            for (ClassModel classModel : classes) {
+                umlModel.addClassToDiagram(classModel);
+            }
+        }
+    }
+
+    @Benchmark
+    public UMLModel analyzeAllRelationships(ParsedCorpus corpus) {
+        RelationshipAnalyzer analyzer = new RelationshipAnalyzer(corpus.umlModel);
+        analyzer.analyzeAllRelationships(corpus.summaries);
+        return corpus.umlModel;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import controller.JavaFileParser;
+
+/**
+ * Synthetic source tree shared by all benchmarks of one parameter combination
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"100", "10000", "100000"})
+    public int classCount;
+
+    @Param({"4"})
+    public int inheritanceDepth;
+
+    @Param({"4"})
+    public int fieldFanOut;
+
+    protected Path root;
+    protected List<Path> files;
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws Exception {
+        root = Files.createTempDirectory("uml-bench");
+        files = new SyntheticCorpus(classCount, inheritanceDepth, fieldFanOut, 42L).writeTo(root);
+        prepare();
+    }
+
+    /**
+     * Hook for subclasses to derive further state once the corpus exists.
+     * JMH does not order setup methods across a state class hierarchy.
+     */
+    protected void prepare() throws Exception {
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() throws IOException {
+        SyntheticCorpus.delete(root);
+    }
+
+    /**
+     * Parses the whole corpus with a fresh parser
+     */
+    protected JavaFileParser parseCorpus() throws Exception {
+        JavaFileParser parser = new JavaFileParser();
+        for (Path file : files) {
+            parser.parseFile(file);
+        }
+        return parser;
+    }
+}
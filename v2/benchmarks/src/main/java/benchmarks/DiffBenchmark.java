@@ -0,0 +1,102 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import controller.UMLSnapshotFile;
+import model.ClassModel;
+import model.DependencyModel;
+import model.FieldModel;
+import model.ModelDiff;
+import model.UMLModel;
+import model.UMLSnapshot;
+import model.Visibility;
+
+/**
+ * Comparing an analyzed model with a copy in which a few classes gained a
+ * field, with hashes already computed and straight from saved snapshots
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DiffBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class TwoRuns extends CorpusState {
+
+        @Param({"10"})
+        public int changedClasses;
+
+        UMLSnapshot before;
+        UMLSnapshot after;
+        Path beforeFile;
+        Path afterFile;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            UMLModel umlModel = parser.getUmlModel();
+            new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+            before = umlModel.freeze();
+
+            UMLModel changed = new UMLModel();
+            int stride = Math.max(1, before.getClasses().size() / changedClasses);
+            for (int i = 0; i < before.getClasses().size(); i++) {
+                ClassModel classModel = before.getClasses().get(i);
+                changed.addClassToDiagram(i % stride == 0 ? withExtraField(classModel) : classModel);
+            }
+            for (DependencyModel relationship : before.getRelationships()) {
+                changed.addRelationshipToDiagram(relationship);
+            }
+            after = changed.freeze();
+
+            ModelDiff diff = ModelDiff.between(before, after);
+            if (diff.getChangedClasses().isEmpty() || !diff.getAddedClasses().isEmpty()) {
+                throw new IllegalStateException("Unexpected diff of the changed copy");
+            }
+
+            // inside the corpus directory, so they are deleted with it
+            beforeFile = root.resolve("before.umlmodel");
+            afterFile = root.resolve("after.umlmodel");
+            UMLSnapshotFile.write(before, beforeFile);
+            UMLSnapshotFile.write(after, afterFile);
+        }
+
+        private static ClassModel withExtraField(ClassModel original) {
+            ClassModel copy = new ClassModel(original.getClassName());
+            copy.setPackageName(original.getPackageName());
+            copy.setQualifiedName(original.getQualifiedName());
+            copy.setIsInterface(original.isInterface());
+            copy.setIsAbstract(original.isAbstract());
+            copy.addFields(original.getFields());
+            copy.addMethods(original.getMethods());
+            copy.addField(new FieldModel(Visibility.PRIVATE, false, false, "int", "benchmarkField", null));
+            return copy;
+        }
+    }
+
+    @Benchmark
+    public ModelDiff compare(TwoRuns runs) {
+        return ModelDiff.between(runs.before, runs.after);
+    }
+
+    @Benchmark
+    public ModelDiff loadAndCompare(TwoRuns runs) throws Exception {
+        return ModelDiff.between(UMLSnapshotFile.read(runs.beforeFile).freeze(),
+                UMLSnapshotFile.read(runs.afterFile).freeze());
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import model.UMLModel;
+import view.DiagramSharder;
+import view.PlantUMLEncoder;
+import view.PlantUMLGenerator;
+
+/**
+ * Phase 4: PlantUMLEncoder against the previous implementation, once for the
+ * whole diagram and once for the many small diagrams of a sharded run
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class Diagrams extends CorpusState {
+
+        @Param({"50"})
+        public int shardSize;
+
+        String plantUML;
+        List<String> shards;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            UMLModel umlModel = parser.getUmlModel();
+            new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+
+            PlantUMLGenerator generator = new PlantUMLGenerator();
+            plantUML = generator.generatePlantUML(umlModel);
+            shards = new ArrayList<>();
+            for (DiagramSharder.Shard shard : new DiagramSharder(DiagramSharder.Mode.SIZE, shardSize).split(umlModel)) {
+                shards.add(generator.generatePlantUML(shard.getModel()));
+            }
+
+            // Both encoders have to agree before their timings mean anything
+            if (!PlantUMLEncoder.encode(plantUML).equals(LegacyPlantUMLEncoder.encode(plantUML))) {
+                throw new IllegalStateException("PlantUMLEncoder output differs from the legacy encoder");
+            }
+        }
+    }
+
+    @Benchmark
+    public String encodeLegacy(Diagrams diagrams) {
+        return LegacyPlantUMLEncoder.encode(diagrams.plantUML);
+    }
+
+    @Benchmark
+    public String encode(Diagrams diagrams) {
+        return PlantUMLEncoder.encode(diagrams.plantUML);
+    }
+
+    @Benchmark
+    public void encodeShardsLegacy(Diagrams diagrams, Blackhole blackhole) {
+        for (String shard : diagrams.shards) {
+            blackhole.consume(LegacyPlantUMLEncoder.encode(shard));
+        }
+    }
+
+    @Benchmark
+    public void encodeShards(Diagrams diagrams, Blackhole blackhole) {
+        for (String shard : diagrams.shards) {
+            blackhole.consume(PlantUMLEncoder.encode(shard));
+        }
+    }
+}
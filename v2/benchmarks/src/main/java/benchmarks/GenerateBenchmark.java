@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import model.UMLModel;
+import view.PlantUMLEncoder;
+import view.PlantUMLGenerator;
+
+/**
+ * Phases 3 and 4: PlantUMLGenerator.generatePlantUML and PlantUMLEncoder.encode
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GenerateBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class AnalyzedCorpus extends CorpusState {
+        UMLModel umlModel;
+        String plantUML;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            umlModel = parser.getUmlModel();
+            new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+            plantUML = new PlantUMLGenerator().generatePlantUML(umlModel);
+        }
+    }
+
+    @Benchmark
+    public String generatePlantUML(AnalyzedCorpus corpus) {
+        return new PlantUMLGenerator().generatePlantUML(corpus.umlModel);
+    }
+
+    @Benchmark
+    public String encode(AnalyzedCorpus corpus) {
+        return PlantUMLEncoder.encode(corpus.plantUML);
+    }
+}
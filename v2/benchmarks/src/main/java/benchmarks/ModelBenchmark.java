@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import model.ClassModel;
+import model.DependencyModel;
+import model.UMLModel;
+import model.UMLSnapshot;
+
+/**
+ * Building a UMLModel from already parsed classes and relationships and
+ * freezing it for the generator, from one thread and from all cores
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class AnalyzedCorpus extends CorpusState {
+        List<ClassModel> classes;
+        List<DependencyModel> relationships;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            UMLModel umlModel = parser.getUmlModel();
+            new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+            classes = umlModel.getClasses();
+            relationships = umlModel.getRelationships();
+        }
+    }
+
+    @Benchmark
+    public UMLSnapshot buildSerial(AnalyzedCorpus corpus) {
+        UMLModel umlModel = new UMLModel();
+        for (ClassModel classModel : corpus.classes) {
+            umlModel.addClassToDiagram(classModel);
+        }
+        for (DependencyModel relationship : corpus.relationships) {
+            umlModel.addRelationshipToDiagram(relationship);
+        }
+        return umlModel.freeze();
+    }
+
+    @Benchmark
+    public UMLSnapshot buildParallel(AnalyzedCorpus corpus) {
+        UMLModel umlModel = new UMLModel();
+        IntStream.range(0, corpus.classes.size()).parallel()
+                .forEach(i -> umlModel.addClassToDiagram(corpus.classes.get(i)));
+        IntStream.range(0, corpus.relationships.size()).parallel()
+                .forEach(i -> umlModel.addRelationshipToDiagram(corpus.relationships.get(i)));
+        return umlModel.freeze();
+    }
+}
@@ -0,0 +1,34 @@
+package benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+
+/**
+ * Phase 1: JavaFileParser.parseFile over every file of the corpus
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Benchmark
+    public JavaFileParser parseFile(CorpusState corpus) throws Exception {
+        JavaFileParser parser = new JavaFileParser();
+        for (Path file : corpus.files) {
+            parser.parseFile(file);
+        }
+        return parser;
+    }
+}
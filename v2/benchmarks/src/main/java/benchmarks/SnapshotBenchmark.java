@@ -0,0 +1,66 @@
+package benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+import controller.UMLSnapshotFile;
+import model.UMLModel;
+import model.UMLSnapshot;
+
+/**
+ * Saving an analyzed model with UMLSnapshotFile and loading it back
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class SavedModel extends CorpusState {
+        UMLSnapshot snapshot;
+        Path file;
+
+        @Override
+        protected void prepare() throws Exception {
+            JavaFileParser parser = parseCorpus();
+            UMLModel umlModel = parser.getUmlModel();
+            new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+            snapshot = umlModel.freeze();
+            // inside the corpus directory, so it is deleted with it
+            file = root.resolve("model.umlmodel");
+            UMLSnapshotFile.write(snapshot, file);
+
+            UMLSnapshot loaded = UMLSnapshotFile.read(file).freeze();
+            if (loaded.getClasses().size() != snapshot.getClasses().size()
+                    || loaded.getRelationships().size() != snapshot.getRelationships().size()) {
+                throw new IllegalStateException("Loaded model differs from the saved one");
+            }
+            System.out.println("Snapshot size: " + Files.size(file) / 1024 + " KB");
+        }
+    }
+
+    @Benchmark
+    public Path write(SavedModel model) throws Exception {
+        UMLSnapshotFile.write(model.snapshot, model.file);
+        return model.file;
+    }
+
+    @Benchmark
+    public UMLModel read(SavedModel model) throws Exception {
+        return UMLSnapshotFile.read(model.file);
+    }
+}
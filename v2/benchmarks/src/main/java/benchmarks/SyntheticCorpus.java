@@ -0,0 +1,139 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates a deterministic tree of Java sources for benchmarking.
+ *
+ * Classes form inheritance chains of the given depth; every class declares
+ * fieldFanOut fields referencing other classes (plain, generic and array
+ * references), a constructor and a few methods with parameter and return
+ * dependencies, so every relationship kind is exercised.
+ */
+public class SyntheticCorpus {
+
+    private static final int CLASSES_PER_PACKAGE = 500;
+
+    private final int classCount;
+    private final int inheritanceDepth;
+    private final int fieldFanOut;
+    private final long seed;
+
+    public SyntheticCorpus(int classCount, int inheritanceDepth, int fieldFanOut, long seed) {
+        this.classCount = classCount;
+        this.inheritanceDepth = Math.max(1, inheritanceDepth);
+        this.fieldFanOut = fieldFanOut;
+        this.seed = seed;
+    }
+
+    /**
+     * Writes one file per class below root and returns the files in creation order
+     */
+    public List<Path> writeTo(Path root) throws IOException {
+        List<Path> files = new ArrayList<>(classCount);
+        Random random = new Random(seed);
+
+        for (int i = 0; i < classCount; i++) {
+            Path packageDir = root.resolve(packageName(i));
+            Files.createDirectories(packageDir);
+            Path file = packageDir.resolve(className(i) + ".java");
+            Files.writeString(file, source(i, random));
+            files.add(file);
+        }
+        return files;
+    }
+
+    public static void delete(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private String source(int index, Random random) {
+        String name = className(index);
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName(index)).append(";\n\n");
+        source.append("import java.util.*;\n\n");
+
+        boolean isInterface = index % 23 == 0;
+        if (isInterface) {
+            source.append("public interface ").append(name).append(" {\n");
+            source.append("    ").append(randomClass(random)).append(" find(String key);\n");
+            source.append("}\n");
+            return source.toString();
+        }
+
+        source.append("public class ").append(name);
+        // Chains of inheritanceDepth classes: each class extends its predecessor
+        if (index % inheritanceDepth != 0 && (index - 1) % 23 != 0) {
+            source.append(" extends ").append(className(index - 1));
+        }
+        if (index > 23) {
+            source.append(" implements ").append(className(index / 23 * 23 - 23));
+        }
+        source.append(" {\n");
+
+        for (int f = 0; f < fieldFanOut; f++) {
+            String target = randomClass(random);
+            switch (f % 4) {
+                case 0:
+                    source.append("    private final ").append(target).append(" part").append(f).append(";\n");
+                    break;
+                case 1:
+                    source.append("    protected List<").append(target).append("> items").append(f)
+                          .append(" = new ArrayList<>();\n");
+                    break;
+                case 2:
+                    source.append("    ").append(target).append("[] array").append(f).append(";\n");
+                    break;
+                default:
+                    source.append("    public ").append(target).append(" ref").append(f).append(";\n");
+            }
+        }
+        source.append("    private static final int LIMIT = ").append(index).append(";\n\n");
+
+        source.append("    public ").append(name).append("(").append(randomClass(random)).append(" seed) {\n");
+        for (int f = 0; f < fieldFanOut; f += 4) {
+            source.append("        this.part").append(f).append(" = null;\n");
+        }
+        source.append("    }\n\n");
+
+        source.append("    public ").append(randomClass(random)).append(" convert(")
+              .append(randomClass(random)).append(" input, int count) {\n");
+        source.append("        for (int i = 0; i < count; i++) {\n");
+        source.append("            if (i % 2 == 0) { System.out.println(\"even \" + i); }\n");
+        source.append("        }\n");
+        source.append("        return null;\n");
+        source.append("    }\n\n");
+
+        source.append("    public Map<String, ").append(randomClass(random)).append("> index() {\n");
+        source.append("        return new HashMap<>();\n");
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private String randomClass(Random random) {
+        return className(random.nextInt(classCount));
+    }
+
+    private static String className(int index) {
+        return "Type" + index;
+    }
+
+    private static String packageName(int index) {
+        return "corpus.p" + (index / CLASSES_PER_PACKAGE);
+    }
+}
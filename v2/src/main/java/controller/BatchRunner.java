@@ -0,0 +1,207 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import view.DiagramSharder;
+
+/**
+ * Generates every diagram listed in a JSON manifest in one JVM.
+ *
+ * The manifest is either an array of entries or an object with an
+ * "entries" array:
+ *   {"entries": [
+ *     {"input": "core/src", "output": "out/core.puml"},
+ *     {"input": "web/src", "output": "out/web.puml", "includeRelationships": false}
+ *   ]}
+ * An entry may render a saved model with "importModel" instead of "input",
+ * and save its own model with "exportModel" (see UMLSnapshotFile).
+ * Relative paths are resolved against the manifest's directory. Options not
+ * set on an entry come from the command line. All entries share one parse
+ * cache, so sources that several entries include are parsed once, and up to
+ * --threads entries are generated at the same time.
+ */
+public class BatchRunner {
+
+    private final UMLGeneratorCLI generator;
+    private final UMLGeneratorCLI.UMLGeneratorConfig defaults;
+
+    public BatchRunner(UMLGeneratorCLI generator, UMLGeneratorCLI.UMLGeneratorConfig defaults) {
+        this.generator = generator;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Runs all entries and returns the number that failed
+     */
+    public int run() throws IOException {
+        Path manifest = defaults.batchManifest;
+        List<UMLGeneratorCLI.UMLGeneratorConfig> entries = readManifest(manifest);
+        ParseCache cache = defaults.useCache
+                ? new ParseCache(defaults.cacheDir != null ? defaults.cacheDir : defaultCacheDir(manifest), true)
+                : ParseCache.inMemory();
+        for (UMLGeneratorCLI.UMLGeneratorConfig entry : entries) {
+            entry.sharedCache = cache;
+        }
+
+        // --threads is spent on running entries side by side, each entry parses on one thread
+        int threads = defaults.threads > 1 ? defaults.threads : Runtime.getRuntime().availableProcessors();
+        int parallelism = Math.max(1, Math.min(threads, entries.size()));
+        Log.info("📦 Batch: " + entries.size() + " diagrams from " + manifest + ", " + parallelism + " at a time");
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (UMLGeneratorCLI.UMLGeneratorConfig entry : entries) {
+                try {
+                    // manifests commonly point entries at an output directory that does not exist yet
+                    Files.createDirectories(entry.outputPath.toAbsolutePath().getParent());
+                } catch (IOException e) {
+                    futures.add(CompletableFuture.failedFuture(e));
+                    continue;
+                }
+                futures.add(executor.submit(() -> generator.generateUML(entry)));
+            }
+
+            int failed = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                UMLGeneratorCLI.UMLGeneratorConfig entry = entries.get(i);
+                try {
+                    futures.get(i).get();
+                    Log.info("  ✅ " + sourceOf(entry) + " -> " + entry.outputPath);
+                } catch (ExecutionException e) {
+                    failed++;
+                    Log.error("  ❌ " + sourceOf(entry) + ": " + describe(e.getCause()));
+                }
+            }
+
+            Log.info("📦 Batch complete: " + (entries.size() - failed) + " written, " + failed + " failed in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            Log.info("🗃️  Cache: " + cache.getHits() + " reused, " + cache.getMisses() + " parsed");
+            return failed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running batch", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<UMLGeneratorCLI.UMLGeneratorConfig> readManifest(Path manifest) throws IOException {
+        Object parsed = Json.parse(Files.readString(manifest, StandardCharsets.UTF_8));
+        if (parsed instanceof Map<?, ?> object) {
+            parsed = object.get("entries");
+        }
+        if (!(parsed instanceof List<?> list)) {
+            throw new IllegalArgumentException("Batch manifest must be an array of entries or have an \"entries\" array: " + manifest);
+        }
+
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        List<UMLGeneratorCLI.UMLGeneratorConfig> entries = new ArrayList<>();
+        for (Object item : list) {
+            if (!(item instanceof Map<?, ?> entry)) {
+                throw new IllegalArgumentException("Batch entry must be an object: " + Json.write(item));
+            }
+            entries.add(toConfig(entry, baseDir));
+        }
+        return entries;
+    }
+
+    private UMLGeneratorCLI.UMLGeneratorConfig toConfig(Map<?, ?> entry, Path baseDir) {
+        UMLGeneratorCLI.UMLGeneratorConfig config = defaults.copy();
+        config.batchManifest = null;
+        config.threads = 1;
+        config.watch = false;
+        // one snapshot file per entry at most, never shared through the defaults
+        config.exportModel = null;
+        config.importModel = null;
+
+        Object input = entry.get("input");
+        Object importModel = entry.get("importModel");
+        if (importModel != null) {
+            config.inputPath = null;
+            config.importModel = baseDir.resolve(importModel.toString());
+        } else if (input != null) {
+            config.inputPath = baseDir.resolve(Paths.get(input.toString().replace('\\', '/')));
+        } else {
+            throw new IllegalArgumentException("Batch entry without input: " + Json.write(entry));
+        }
+        Object exportModel = entry.get("exportModel");
+        if (exportModel != null) {
+            config.exportModel = baseDir.resolve(exportModel.toString());
+        }
+        Object output = entry.get("output");
+        if (output != null) {
+            config.outputPath = baseDir.resolve(output.toString());
+        } else {
+            Path source = config.importModel != null ? config.importModel : config.inputPath;
+            String inputName = source.getFileName().toString();
+            if (inputName.endsWith(".java")) {
+                inputName = inputName.substring(0, inputName.length() - 5);
+            }
+            config.outputPath = baseDir.resolve(inputName + ".puml");
+        }
+
+        config.includeRelationships = booleanValue(entry, "includeRelationships", config.includeRelationships);
+        config.signaturesOnly = booleanValue(entry, "signaturesOnly", config.signaturesOnly);
+        config.pipeline = booleanValue(entry, "pipeline", config.pipeline);
+        if (config.pipeline && config.virtualThreads) {
+            throw new IllegalArgumentException("Batch entry with pipeline, which cannot be combined with --virtual-threads: " + Json.write(entry));
+        }
+        config.encodeUrl = booleanValue(entry, "encode", config.encodeUrl);
+        config.writeMetrics = booleanValue(entry, "metrics", config.writeMetrics);
+        config.threads = (int) Math.max(1, longValue(entry, "threads", config.threads));
+        config.encodeLimitKb = (int) Math.max(1, longValue(entry, "encodeLimitKb", config.encodeLimitKb));
+        config.shardSize = (int) Math.max(1, longValue(entry, "shardSize", config.shardSize));
+        Object shard = entry.get("shard");
+        if (shard != null) {
+            config.shardMode = DiagramSharder.Mode.fromString(shard.toString());
+        }
+        return config;
+    }
+
+    /**
+     * The failure's message, with its type when the message alone is unclear,
+     * e.g. a NoSuchFileException whose message is just the path
+     */
+    private static String describe(Throwable cause) {
+        if (cause.getMessage() == null) {
+            return cause.toString();
+        }
+        if (cause instanceof FileSystemException) {
+            return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        }
+        return cause.getMessage();
+    }
+
+    private static Path sourceOf(UMLGeneratorCLI.UMLGeneratorConfig entry) {
+        return entry.importModel != null ? entry.importModel : entry.inputPath;
+    }
+
+    private static Path defaultCacheDir(Path manifest) {
+        return manifest.toAbsolutePath().getParent().resolve(ParseCache.DEFAULT_DIRECTORY);
+    }
+
+    private static boolean booleanValue(Map<?, ?> entry, String key, boolean defaultValue) {
+        Object value = entry.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    private static long longValue(Map<?, ?> entry, String key, long defaultValue) {
+        Object value = entry.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+}
@@ -0,0 +1,120 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+
+import model.ClassSummary;
+import model.TypeScope;
+
+/**
+ * Extracts the type references of a class declaration into a ClassSummary
+ */
+public class ClassSummaryExtractor {
+
+    private static final Set<String> COLLECTION_TYPES = Set.of(
+        "List", "ArrayList", "LinkedList",
+        "Set", "HashSet", "TreeSet", "LinkedHashSet",
+        "Map", "HashMap", "TreeMap", "LinkedHashMap",
+        "Collection", "Queue", "Deque"
+    );
+
+    public ClassSummary extract(ClassOrInterfaceDeclaration classDecl) {
+        return extract(classDecl, classDecl.getNameAsString(), null);
+    }
+
+    /**
+     * Extracts a summary whose type names can later be resolved against the given file scope
+     */
+    public ClassSummary extract(ClassOrInterfaceDeclaration classDecl, String qualifiedName, TypeScope scope) {
+        ClassSummary summary = new ClassSummary(classDecl.getNameAsString(), qualifiedName, scope);
+
+        classDecl.getExtendedTypes().forEach(type -> summary.addExtendedType(extractClassName(type)));
+        classDecl.getImplementedTypes().forEach(type -> summary.addImplementedType(extractClassName(type)));
+
+        for (FieldDeclaration field : classDecl.getFields()) {
+            for (VariableDeclarator variable : field.getVariables()) {
+                summary.addField(extractField(field, variable));
+            }
+        }
+
+        for (MethodDeclaration method : classDecl.getMethods()) {
+            summary.addMethod(new ClassSummary.MethodReference(
+                    method.getNameAsString(),
+                    extractParameterTypes(method.getParameters()),
+                    extractClassName(method.getType())));
+        }
+
+        for (ConstructorDeclaration constructor : classDecl.getConstructors()) {
+            summary.addConstructor(extractParameterTypes(constructor.getParameters()));
+        }
+
+        return summary;
+    }
+
+    private ClassSummary.FieldReference extractField(FieldDeclaration field, VariableDeclarator variable) {
+        Type fieldType = field.getElementType();
+
+        List<String> typeArguments = new ArrayList<>();
+        if (fieldType.isClassOrInterfaceType()) {
+            ClassOrInterfaceType classType = fieldType.asClassOrInterfaceType();
+            classType.getTypeArguments().ifPresent(args -> args.forEach(arg -> typeArguments.add(extractClassName(arg))));
+        }
+
+        String arrayComponent = fieldType.isArrayType()
+                ? extractClassName(fieldType.asArrayType().getComponentType())
+                : null;
+
+        return new ClassSummary.FieldReference(
+                variable.getNameAsString(),
+                extractClassName(fieldType),
+                typeArguments,
+                arrayComponent,
+                field.isFinal(),
+                field.isPrivate(),
+                field.getModifiers().size() > 0,
+                isCollectionType(fieldType));
+    }
+
+    private List<String> extractParameterTypes(List<Parameter> parameters) {
+        List<String> types = new ArrayList<>(parameters.size());
+        for (Parameter param : parameters) {
+            types.add(extractClassName(param.getType()));
+        }
+        return types;
+    }
+
+    /**
+     * Checks if a type represents a collection (List, Set, Map, etc.)
+     */
+    private boolean isCollectionType(Type type) {
+        if (!type.isClassOrInterfaceType()) {
+            return false;
+        }
+        return COLLECTION_TYPES.contains(type.asClassOrInterfaceType().getNameAsString());
+    }
+
+    /**
+     * Extracts the class name from a Type as written, with any qualifier but
+     * without type arguments, handling generics and arrays
+     */
+    private String extractClassName(Type type) {
+        if (type.isClassOrInterfaceType()) {
+            return type.asClassOrInterfaceType().getNameWithScope();
+        } else if (type.isArrayType()) {
+            return extractClassName(type.asArrayType().getComponentType());
+        } else if (type.isPrimitiveType()) {
+            return type.asPrimitiveType().getType().asString();
+        }
+        return type.toString();
+    }
+}
@@ -0,0 +1,309 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import model.ClassModel;
+import model.ClassSummary;
+import model.UMLModel;
+
+/**
+ * Keeps a diagram up to date while its sources are edited.
+ *
+ * After one full generation the watcher keeps every file's parse result.
+ * When files are created, modified or deleted it re-parses only those files,
+ * swaps their classes in the model, recomputes the relationships that can
+ * have changed and rewrites the output. Classes and relationships are kept
+ * in the order a fresh run over the same files would produce.
+ */
+public class DiagramWatcher {
+
+    // events arriving this soon after another one are handled in the same batch
+    private static final long SETTLE_MILLIS = 200;
+
+    private final UMLGeneratorCLI cli;
+    private final UMLGeneratorCLI.UMLGeneratorConfig config;
+    private final Path root;
+    // null unless --cache or --cache-dir is given
+    private final ParseCache cache;
+    private final JavaFileParser parser;
+    private final UMLModel umlModel;
+    // per file parse results, in discovery order
+    private final Map<Path, JavaFileParser.ParseResult> files = new LinkedHashMap<>();
+    // null when relationships are skipped
+    private RelationshipAnalyzer analyzer;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    public DiagramWatcher(UMLGeneratorCLI cli, UMLGeneratorCLI.UMLGeneratorConfig config) throws IOException {
+        this.cli = cli;
+        this.config = config;
+        this.root = config.inputPath.toAbsolutePath().normalize();
+        this.cache = config.useCache ? new ParseCache(cli.resolveCacheDir(config)) : null;
+        this.parser = new JavaFileParser(cache, config.signaturesOnly);
+        this.umlModel = parser.getUmlModel();
+    }
+
+    /**
+     * Generates the diagram once, then regenerates it on every change until interrupted
+     */
+    public void run() throws Exception {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            // Register before the first parse so no edit slips through in between
+            if (Files.isDirectory(root)) {
+                registerTree(watchService, root);
+            } else {
+                // A single-file input only needs its own directory
+                register(watchService, root.getParent());
+            }
+            generateInitial();
+
+            Log.info("👀 Watching " + root + " for changes (Ctrl+C to stop)...");
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new LinkedHashSet<>();
+                collectEvents(watchService, watchService.take(), changed);
+                // Editors often write a file in several steps; wait for it to settle
+                WatchKey next;
+                while ((next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collectEvents(watchService, next, changed);
+                }
+                if (!changed.isEmpty()) {
+                    update(changed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void generateInitial() throws Exception {
+        Log.info("🚀 Starting UML Generation in watch mode...");
+        List<Path> javaFiles = new ArrayList<>();
+        for (Path file : cli.findJavaFiles(root)) {
+            javaFiles.add(file.toAbsolutePath().normalize());
+        }
+        Log.info("📁 Found " + javaFiles.size() + " Java files");
+
+        List<JavaFileParser.ParseResult> results =
+                new ParallelFileParser(Math.max(1, config.threads), cache).parseAll(javaFiles, parser);
+        List<ClassSummary> summaries = new ArrayList<>();
+        for (JavaFileParser.ParseResult result : results) {
+            files.put(result.getFilePath(), result);
+            summaries.addAll(result.getClassSummaries());
+        }
+
+        if (config.includeRelationships) {
+            analyzer = new RelationshipAnalyzer(umlModel);
+            analyzer.analyzeAllRelationships(summaries, config.threads);
+        }
+        String url = cli.writeDiagram(config, umlModel, GenerationMetrics.disabled());
+        Log.info("🎉 Initial diagram written to " + config.outputPath);
+        if (url != null) {
+            Log.info("🌐 Open at: " + url);
+        }
+    }
+
+    /**
+     * Re-parses the changed files and refreshes only what they can affect
+     */
+    private void update(Set<Path> changed) throws IOException {
+        long start = System.nanoTime();
+        Set<String> changedNames = new HashSet<>();
+        boolean filesAdded = false;
+
+        for (Path file : changed) {
+            JavaFileParser.ParseResult oldResult = files.get(file);
+            JavaFileParser.ParseResult newResult = null;
+            if (Files.isRegularFile(file)) {
+                try {
+                    newResult = parser.parse(file);
+                } catch (Exception e) {
+                    // typically a file caught halfway through a save; the next event retries it
+                    Log.error("⚠️  Could not parse " + file + ": " + e.getMessage());
+                    continue;
+                }
+            }
+            if (oldResult == null && newResult == null) {
+                continue;
+            }
+
+            replaceClasses(oldResult, newResult, changedNames);
+
+            if (newResult != null) {
+                filesAdded |= oldResult == null;
+                files.put(file, newResult);
+                Log.info((oldResult == null ? "  Added: " : "  Updated: ") + file.getFileName());
+            } else {
+                files.remove(file);
+                Log.info("  Removed: " + file.getFileName());
+            }
+        }
+
+        if (changedNames.isEmpty()) {
+            return;
+        }
+
+        List<ClassSummary> summaries = arrangeClasses(filesAdded);
+        if (analyzer != null) {
+            int before = umlModel.getRelationshipCount();
+            int reanalyzed = analyzer.reanalyze(changedNames);
+            analyzer.restoreRelationshipOrder(summaries);
+            Log.info("🔗 Re-analyzed " + reanalyzed + " classes, relationships: "
+                    + before + " -> " + umlModel.getRelationshipCount());
+        }
+
+        cli.writeDiagram(config, umlModel, GenerationMetrics.disabled());
+        Log.info("🔄 Diagram updated in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Puts the classes in the order of a fresh run: files in discovery order,
+     * declarations in file order. Added classes were appended to the model, and
+     * new files to the file list, so both are rearranged. Returns the summaries
+     * in that order.
+     */
+    private List<ClassSummary> arrangeClasses(boolean filesAdded) throws IOException {
+        if (filesAdded) {
+            Map<Path, JavaFileParser.ParseResult> ordered = new LinkedHashMap<>();
+            for (Path file : cli.findJavaFiles(root)) {
+                Path normalized = file.toAbsolutePath().normalize();
+                JavaFileParser.ParseResult result = files.remove(normalized);
+                if (result != null) {
+                    ordered.put(normalized, result);
+                }
+            }
+            // files gone from disk since their event go last until their delete event is handled
+            ordered.putAll(files);
+            files.clear();
+            files.putAll(ordered);
+        }
+
+        List<ClassModel> classModels = new ArrayList<>(umlModel.getClassCount());
+        List<ClassSummary> summaries = new ArrayList<>(umlModel.getClassCount());
+        for (JavaFileParser.ParseResult result : files.values()) {
+            classModels.addAll(result.getClassModels());
+            summaries.addAll(result.getClassSummaries());
+        }
+        umlModel.reorderClasses(classModels);
+        if (analyzer != null) {
+            analyzer.reorderClasses(classModels, summaries);
+        }
+        return summaries;
+    }
+
+    /**
+     * Swaps a file's old classes for its new ones, replacing in place where possible
+     */
+    private void replaceClasses(JavaFileParser.ParseResult oldResult, JavaFileParser.ParseResult newResult,
+            Set<String> changedNames) {
+        List<ClassModel> oldModels = oldResult != null ? oldResult.getClassModels() : List.of();
+        List<ClassSummary> oldSummaries = oldResult != null ? oldResult.getClassSummaries() : List.of();
+        List<ClassModel> newModels = newResult != null ? newResult.getClassModels() : List.of();
+        List<ClassSummary> newSummaries = newResult != null ? newResult.getClassSummaries() : List.of();
+
+        // Models and summaries are parallel lists, one entry per declaration
+        for (int i = 0; i < Math.max(oldModels.size(), newModels.size()); i++) {
+            ClassModel oldModel = i < oldModels.size() ? oldModels.get(i) : null;
+            ClassModel newModel = i < newModels.size() ? newModels.get(i) : null;
+
+            if (oldModel != null && newModel != null) {
+                umlModel.replaceClass(oldModel, newModel);
+                if (analyzer != null) {
+                    analyzer.replaceClass(oldModel, oldSummaries.get(i), newModel, newSummaries.get(i));
+                }
+            } else if (oldModel != null) {
+                umlModel.removeClass(oldModel);
+                if (analyzer != null) {
+                    analyzer.removeClass(oldModel, oldSummaries.get(i));
+                }
+            } else {
+                umlModel.addClassToDiagram(newModel);
+                if (analyzer != null) {
+                    analyzer.addClass(newModel, newSummaries.get(i));
+                }
+            }
+
+            if (oldModel != null) {
+                changedNames.add(oldModel.getQualifiedName());
+            }
+            if (newModel != null) {
+                changedNames.add(newModel.getQualifiedName());
+            }
+        }
+    }
+
+    private void collectEvents(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                // Events were lost; fall back to checking every known and current file
+                changed.addAll(files.keySet());
+                for (Path file : cli.findJavaFiles(root)) {
+                    changed.add(file.toAbsolutePath().normalize());
+                }
+                continue;
+            }
+
+            Path path = directory.resolve((Path) event.context()).normalize();
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)
+                    && Files.isDirectory(root)) {
+                // A new package: watch it and pick up whatever it already contains
+                registerTree(watchService, path);
+                try (Stream<Path> paths = Files.walk(path)) {
+                    paths.filter(this::isWatchedSource).forEach(changed::add);
+                }
+            } else if (isWatchedSource(path) || files.containsKey(path)) {
+                changed.add(path);
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                // A deleted directory takes its files with it
+                for (Path file : files.keySet()) {
+                    if (file.startsWith(path)) {
+                        changed.add(file);
+                    }
+                }
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private boolean isWatchedSource(Path path) {
+        if (!path.toString().endsWith(".java")) {
+            return false;
+        }
+        // A single-file input only cares about that one file
+        return Files.isDirectory(root) ? path.startsWith(root) : path.equals(root);
+    }
+
+    private void registerTree(WatchService watchService, Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path dir : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                register(watchService, dir);
+            }
+        }
+    }
+
+    private void register(WatchService watchService, Path directory) throws IOException {
+        WatchKey key = directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirectories.put(key, directory);
+    }
+}
@@ -0,0 +1,88 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.ModelDiff;
+import model.UMLModel;
+import model.UMLSnapshot;
+import view.PlantUMLGenerator;
+
+/**
+ * Compares the models of two runs and writes a delta diagram with only the
+ * classes, members and relationships that differ.
+ *
+ * Each side is a saved model snapshot (see UMLSnapshotFile) or a Java file
+ * or directory, which is parsed and analyzed first. Comparing snapshots
+ * saved with --export-model avoids parsing entirely; the comparison itself
+ * skips every package and class whose structural hash is unchanged, so its
+ * cost follows the size of the change rather than the size of the models.
+ */
+public class DiffRunner {
+
+    private final UMLGeneratorCLI generator;
+    private final UMLGeneratorCLI.UMLGeneratorConfig config;
+
+    public DiffRunner(UMLGeneratorCLI generator, UMLGeneratorCLI.UMLGeneratorConfig config) {
+        this.generator = generator;
+        this.config = config;
+    }
+
+    /**
+     * Writes the delta diagram and returns the diff it shows
+     */
+    public ModelDiff run() throws Exception {
+        Log.info("🧮 Diff: " + config.diffOld + " -> " + config.diffNew);
+        Log.info("Output: " + config.outputPath);
+        Log.info("");
+
+        long start = System.nanoTime();
+        ParseCache cache = config.useCache ? new ParseCache(generator.resolveCacheDir(config)) : null;
+        UMLSnapshot before = load(config.diffOld, cache);
+        UMLSnapshot after = load(config.diffNew, cache);
+        long loaded = System.nanoTime();
+
+        ModelDiff diff = ModelDiff.between(before, after);
+        long compared = System.nanoTime();
+        Log.info("🧮 Compared " + before.getClasses().size() + " and " + after.getClasses().size() + " classes in "
+                + (compared - loaded) / 1_000_000 + " ms, " + diff.getComparedClasses() + " needed a closer look");
+        if (diff.isEmpty()) {
+            Log.info("✅ No differences");
+        } else {
+            Log.info("✅ Classes: " + diff.getAddedClasses().size() + " added, " + diff.getRemovedClasses().size()
+                    + " removed, " + diff.getChangedClasses().size() + " changed");
+            Log.info("✅ Relationships: " + diff.getAddedRelationships().size() + " added, "
+                    + diff.getRemovedRelationships().size() + " removed");
+        }
+
+        StringBuilder plantUML = new StringBuilder();
+        new PlantUMLGenerator().generateDiff(diff, plantUML);
+        String url = generator.writeDocument(config, plantUML.toString());
+        Log.info("🎉 Delta diagram saved to: " + config.outputPath + " ("
+                + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        if (url != null) {
+            Log.info("🌐 View online: " + url);
+        }
+        return diff;
+    }
+
+    private UMLSnapshot load(Path source, ParseCache cache) throws Exception {
+        if (isModelSnapshot(source)) {
+            Log.info("📂 Loading model snapshot: " + source);
+            return UMLSnapshotFile.read(source).freeze();
+        }
+
+        Log.info("📝 Parsing and analyzing: " + source);
+        JavaFileParser parser = new JavaFileParser(cache, config.signaturesOnly);
+        new ParsePipeline(config.threads, cache).run(source, parser, config.includeRelationships,
+                GenerationMetrics.disabled());
+        UMLModel umlModel = parser.getUmlModel();
+        return umlModel.freeze();
+    }
+
+    private static boolean isModelSnapshot(Path source) {
+        return source.toString().endsWith(".umlmodel")
+                || (Files.isRegularFile(source) && !source.toString().endsWith(".java"));
+    }
+}
@@ -0,0 +1,262 @@
+package controller;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects per-phase wall and CPU time, per-file parse latency and the heap
+ * high-water mark of one generation run, and writes them as a JSON report.
+ *
+ * Heap peaks are tracked by the JVM, not per run. They are reset when a run
+ * starts alone; when runs overlap (batch entries, daemon requests) the peak
+ * is left alone and the report marks it as process-wide. Close the metrics
+ * when the run ends.
+ *
+ * Runs that do not write a report use disabled(), which records nothing and
+ * leaves the heap peaks and the run count alone.
+ */
+public class GenerationMetrics implements AutoCloseable {
+
+    // runs between construction and close(), guarded by the class
+    private static int activeRuns;
+    // bumped whenever a run starts while another one is active
+    private static long overlapCount;
+
+    private static final GenerationMetrics DISABLED = new GenerationMetrics(false);
+
+    private final long startNanos = System.nanoTime();
+    private final List<PhaseTiming> phases = new ArrayList<>();
+    private final ConcurrentLinkedQueue<FileTiming> fileTimings = new ConcurrentLinkedQueue<>();
+    private final Map<String, Object> counters = new LinkedHashMap<>();
+    private PhaseTiming currentPhase;
+    private final boolean startedAlone;
+    private final long overlapsAtStart;
+    private final boolean enabled;
+    private boolean closed;
+
+    public GenerationMetrics() {
+        this(true);
+    }
+
+    private GenerationMetrics(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            startedAlone = true;
+            overlapsAtStart = 0;
+            return;
+        }
+        synchronized (GenerationMetrics.class) {
+            startedAlone = activeRuns == 0;
+            if (startedAlone) {
+                // Peak usage is tracked per pool; reset so the report covers this run only
+                for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                    if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                        pool.resetPeakUsage();
+                    }
+                }
+            } else {
+                overlapCount++;
+            }
+            activeRuns++;
+            overlapsAtStart = overlapCount;
+        }
+    }
+
+    /**
+     * Shared instance for runs without a metrics report; every call on it is a no-op
+     */
+    public static GenerationMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Ends the run, so a later run may reset the heap peaks again
+     */
+    @Override
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (GenerationMetrics.class) {
+            if (!closed) {
+                closed = true;
+                activeRuns--;
+            }
+        }
+    }
+
+    /**
+     * Whether another run was active at some point since this one started
+     */
+    private boolean overlapped() {
+        synchronized (GenerationMetrics.class) {
+            return !startedAlone || overlapCount != overlapsAtStart;
+        }
+    }
+
+    /**
+     * Ends the running phase, if any, and starts timing the next one
+     */
+    public void startPhase(String name) {
+        if (!enabled) {
+            return;
+        }
+        endPhase();
+        currentPhase = new PhaseTiming(name, System.nanoTime(), processCpuNanos());
+    }
+
+    public void endPhase() {
+        if (currentPhase != null) {
+            currentPhase.wallNanos = System.nanoTime() - currentPhase.startWall;
+            currentPhase.cpuNanos = currentPhase.startCpu >= 0 ? processCpuNanos() - currentPhase.startCpu : -1;
+            phases.add(currentPhase);
+            currentPhase = null;
+        }
+    }
+
+    /**
+     * Records how long one file took to parse; safe to call from worker threads
+     */
+    public void recordFile(Path file, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        fileTimings.add(new FileTiming(file, nanos));
+    }
+
+    public void setCounter(String name, Object value) {
+        if (!enabled) {
+            return;
+        }
+        counters.put(name, value);
+    }
+
+    /**
+     * Writes the report next to the diagram: diagram.puml -> diagram.metrics.json
+     */
+    public Path writeReport(Path outputPath, int slowestCount) throws IOException {
+        endPhase();
+        String fileName = outputPath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        Path reportPath = outputPath.resolveSibling(baseName + ".metrics.json");
+
+        Files.writeString(reportPath, Json.write(toReport(slowestCount)) + "\n", StandardCharsets.UTF_8);
+        return reportPath;
+    }
+
+    Map<String, Object> toReport(int slowestCount) {
+        Map<String, Object> report = new LinkedHashMap<>(counters);
+        report.put("totalWallMillis", millis(System.nanoTime() - startNanos));
+
+        List<Object> phaseList = new ArrayList<>();
+        for (PhaseTiming phase : phases) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", phase.name);
+            entry.put("wallMillis", millis(phase.wallNanos));
+            entry.put("cpuMillis", phase.cpuNanos >= 0 ? millis(phase.cpuNanos) : null);
+            phaseList.add(entry);
+        }
+        report.put("phases", phaseList);
+
+        List<FileTiming> files = new ArrayList<>(fileTimings);
+        files.sort(Comparator.comparingLong((FileTiming timing) -> timing.nanos));
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", files.size());
+        latency.put("p50", percentile(files, 0.50));
+        latency.put("p99", percentile(files, 0.99));
+        latency.put("max", files.isEmpty() ? null : millis(files.get(files.size() - 1).nanos));
+        report.put("parseLatencyMillis", latency);
+
+        List<Object> slowest = new ArrayList<>();
+        for (int i = files.size() - 1; i >= 0 && slowest.size() < slowestCount; i--) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("file", files.get(i).file.toString());
+            entry.put("millis", millis(files.get(i).nanos));
+            slowest.add(entry);
+        }
+        report.put("slowestFiles", slowest);
+
+        Map<String, Object> heap = new LinkedHashMap<>();
+        heap.put("highWaterBytes", heapHighWaterBytes());
+        // "process" when other runs overlapped this one, so their allocations are included
+        heap.put("scope", overlapped() ? "process" : "run");
+        heap.put("maxBytes", Runtime.getRuntime().maxMemory());
+        report.put("heap", heap);
+        return report;
+    }
+
+    private static Double percentile(List<FileTiming> sorted, double fraction) {
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        // nearest-rank percentile
+        int rank = (int) Math.ceil(fraction * sorted.size());
+        return millis(sorted.get(Math.max(0, rank - 1)).nanos);
+    }
+
+    /**
+     * Sum of the per-pool heap peaks. Pools may peak at different moments,
+     * so this is an upper bound on the true high-water mark.
+     */
+    private static long heapHighWaterBytes() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * CPU time of the whole process so parallel phases are accounted for, or -1 if unsupported
+     */
+    private static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static class PhaseTiming {
+        private final String name;
+        private final long startWall;
+        private final long startCpu;
+        private long wallNanos;
+        private long cpuNanos;
+
+        PhaseTiming(String name, long startWall, long startCpu) {
+            this.name = name;
+            this.startWall = startWall;
+            this.startCpu = startCpu;
+        }
+    }
+
+    private static class FileTiming {
+        private final Path file;
+        private final long nanos;
+
+        FileTiming(Path file, long nanos) {
+            this.file = file;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -6,10 +6,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseStart;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.Providers;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.Node;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
@@ -17,31 +24,183 @@ import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 
 import model.ClassModel;
+import model.ClassSummary;
 import model.FieldModel;
 import model.MethodModel;
 import model.ParameterModel;
+import model.TypeScope;
 import model.UMLModel;
 import model.Visibility;
 
 public class JavaFileParser {
 
-    private final JavaParser parser = new JavaParser();
+    private final JavaParser parser;
+    private final ClassSummaryExtractor summaryExtractor = new ClassSummaryExtractor();
+    private final SourceLoader sourceLoader = new SourceLoader();
     private final UMLModel umlModel = new UMLModel();
-    private final List<ClassOrInterfaceDeclaration> classDeclarations = new ArrayList<>();
+    private final List<ClassSummary> classSummaries = new ArrayList<>();
+    private final ParseCache cache;
+    private final boolean signaturesOnly;
+    // limits how many parsers run at once across threads, null for no limit
+    private final Semaphore parsePermits;
+    // time spent waiting for parse permits, cleared by takePermitWaitNanos
+    private long permitWaitNanos;
+
+    public JavaFileParser() {
+        this(null);
+    }
+
+    /**
+     * Creates a parser that consults the given cache before parsing a file
+     */
+    public JavaFileParser(ParseCache cache) {
+        this(cache, false);
+    }
+
+    /**
+     * @param signaturesOnly skip method and constructor bodies, which the
+     *        class models and relationship analysis never look at
+     */
+    public JavaFileParser(ParseCache cache, boolean signaturesOnly) {
+        this(cache, signaturesOnly, null);
+    }
+
+    /**
+     * @param parsePermits held while JavaParser runs, so file reads on other
+     *        threads can overlap with a bounded amount of CPU-bound parsing
+     */
+    public JavaFileParser(ParseCache cache, boolean signaturesOnly, Semaphore parsePermits) {
+        this.cache = cache;
+        this.signaturesOnly = signaturesOnly;
+        this.parsePermits = parsePermits;
+        // Token lists are only needed for lexical-preserving printing
+        this.parser = signaturesOnly
+                ? new JavaParser(new ParserConfiguration().setStoreTokens(false))
+                : new JavaParser();
+    }
+
+    public ParseCache getCache() {
+        return cache;
+    }
+
+    public boolean isSignaturesOnly() {
+        return signaturesOnly;
+    }
 
     public void parseFile(Path filePath) throws Exception {
-        CompilationUnit cu = parser.parse(filePath).getResult().orElseThrow();
+        addParseResult(parse(filePath));
+    }
+
+    /**
+     * Parses a file into its class models without touching this parser's
+     * UML model, so the result can be merged later in a chosen order.
+     */
+    public ParseResult parse(Path filePath) throws Exception {
+        if (cache != null) {
+            return cache.parse(filePath, this);
+        }
+        // read before taking a parse permit
+        return parseLoaded(filePath, sourceLoader.load(filePath));
+    }
+
+    /**
+     * Parses a file read by this parser's source loader, straight from its char buffer
+     */
+    ParseResult parseLoaded(Path filePath, SourceLoader.Source source) {
+        acquireParsePermit();
+        try {
+            if (signaturesOnly) {
+                MethodBodyStripper.stripInPlace(source.chars(), source.length());
+            }
+            CompilationUnit cu = parser.parse(ParseStart.COMPILATION_UNIT, Providers.provider(source.reader()))
+                    .getResult().orElseThrow();
+            return parseCompilationUnit(filePath, cu);
+        } finally {
+            releaseParsePermit();
+        }
+    }
+
+    SourceLoader getSourceLoader() {
+        return sourceLoader;
+    }
+
+    /**
+     * Returns and clears the time this parser waited for parse permits, so
+     * callers timing a file can leave out the queueing
+     */
+    long takePermitWaitNanos() {
+        long waited = permitWaitNanos;
+        permitWaitNanos = 0;
+        return waited;
+    }
+
+    private void acquireParsePermit() {
+        if (parsePermits != null) {
+            long start = System.nanoTime();
+            parsePermits.acquireUninterruptibly();
+            permitWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void releaseParsePermit() {
+        if (parsePermits != null) {
+            parsePermits.release();
+        }
+    }
+
+    private ParseResult parseCompilationUnit(Path filePath, CompilationUnit cu) {
+        ParseResult result = new ParseResult(filePath);
+        String packageName = cu.getPackageDeclaration().map(declaration -> declaration.getNameAsString()).orElse("");
+        TypeScope scope = new TypeScope(packageName);
+        for (ImportDeclaration declaration : cu.getImports()) {
+            scope.addImport(declaration.getNameAsString(), declaration.isAsterisk());
+        }
 
+        // Only models and summaries leave this method, so the compilation unit
+        // becomes garbage as soon as the file is done
         for (ClassOrInterfaceDeclaration classInterface : cu.findAll(ClassOrInterfaceDeclaration.class)) {
-            classDeclarations.add(classInterface);
+            String qualifiedName = qualifiedName(classInterface, scope);
             ClassModel classModel = parseClass(classInterface);
+            classModel.setPackageName(packageName);
+            classModel.setQualifiedName(qualifiedName);
+            result.classModels.add(classModel);
+            result.classSummaries.add(summaryExtractor.extract(classInterface, qualifiedName, scope));
+        }
+        return result;
+    }
+
+    /**
+     * Package, enclosing classes and name; local classes are named after the class whose method declares them
+     */
+    private static String qualifiedName(ClassOrInterfaceDeclaration classInterface, TypeScope scope) {
+        Optional<String> qualifiedName = classInterface.getFullyQualifiedName();
+        if (qualifiedName.isPresent()) {
+            return qualifiedName.get();
+        }
+        // walked by hand: findAncestor takes a generic varargs array and warns
+        for (Node parent = classInterface.getParentNode().orElse(null); parent != null;
+                parent = parent.getParentNode().orElse(null)) {
+            if (parent instanceof ClassOrInterfaceDeclaration outer) {
+                return qualifiedName(outer, scope) + "." + classInterface.getNameAsString();
+            }
+        }
+        return scope.qualify(classInterface.getNameAsString());
+    }
+
+    /**
+     * Merges a previously parsed file into the UML model, preserving the
+     * declaration order of the file.
+     */
+    public void addParseResult(ParseResult result) {
+        classSummaries.addAll(result.classSummaries);
+        for (ClassModel classModel : result.classModels) {
             umlModel.addClassToDiagram(classModel);
-            System.out.println(classModel.toString());
+            Log.debug(classModel::toString);
         }
     }
 
-    public List<ClassOrInterfaceDeclaration> getAllClassDeclarations() {
-        return Collections.unmodifiableList(classDeclarations);
+    public List<ClassSummary> getAllClassSummaries() {
+        return Collections.unmodifiableList(classSummaries);
     }
 
     private ClassModel parseClass(ClassOrInterfaceDeclaration classInterface) {
@@ -216,6 +375,41 @@ public class JavaFileParser {
         return Visibility.PACKAGE_PRIVATE;
     }
 
+    /**
+     * Class models and type-reference summaries extracted from a single source file
+     */
+    public static class ParseResult {
+        private final Path filePath;
+        private final List<ClassModel> classModels = new ArrayList<>();
+        private final List<ClassSummary> classSummaries = new ArrayList<>();
+
+        ParseResult(Path filePath) {
+            this.filePath = filePath;
+        }
+
+        /**
+         * Rebuilds a result from cached models
+         */
+        static ParseResult fromCache(Path filePath, List<ClassModel> classModels, List<ClassSummary> classSummaries) {
+            ParseResult result = new ParseResult(filePath);
+            result.classModels.addAll(classModels);
+            result.classSummaries.addAll(classSummaries);
+            return result;
+        }
+
+        public Path getFilePath() {
+            return filePath;
+        }
+
+        public List<ClassModel> getClassModels() {
+            return Collections.unmodifiableList(classModels);
+        }
+
+        public List<ClassSummary> getClassSummaries() {
+            return Collections.unmodifiableList(classSummaries);
+        }
+    }
+
     public static void main(String[] args) {
         JavaFileParser parser = new JavaFileParser();
         Path file2 = Paths.get("v2\\test\\resources\\data\\inputfiles\\classnotation\\Shape.java");
@@ -0,0 +1,168 @@
+package controller;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Console output of the generator, filtered by level and written by one
+ * background thread, so parsing and analysis threads never wait on the
+ * synchronized System.out.
+ *
+ * Messages for a disabled level are dropped before they are built: hot
+ * paths pass a Supplier, which is only called when the level is enabled.
+ * Lines reach the console in the order they were logged. The writer looks
+ * up System.out and System.err when it writes, so redirecting them (as the
+ * daemon does) also redirects the log.
+ */
+public final class Log {
+
+    public enum Level {
+        // errors only
+        QUIET,
+        // progress banners and summaries
+        INFO,
+        // plus every parsed class, file and relationship found
+        DEBUG;
+
+        public static Level fromString(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown log level (quiet, info or debug): " + value);
+            }
+        }
+    }
+
+    private static volatile Level level = Level.INFO;
+
+    // bounded so a slow console holds back loggers instead of filling the heap
+    private static final BlockingQueue<Object> QUEUE = new LinkedBlockingQueue<>(65536);
+    // lines written per console call at most
+    private static final int MAX_BATCH = 1024;
+
+    static {
+        Thread writer = new Thread(Log::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // Lines still queued when the JVM exits are written before it goes down
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+    }
+
+    private Log() {
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static boolean isInfoEnabled() {
+        return level.compareTo(Level.INFO) >= 0;
+    }
+
+    public static boolean isDebugEnabled() {
+        return level == Level.DEBUG;
+    }
+
+    public static void info(String message) {
+        if (isInfoEnabled()) {
+            enqueue(message);
+        }
+    }
+
+    public static void info(Supplier<String> message) {
+        if (isInfoEnabled()) {
+            enqueue(message.get());
+        }
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (isDebugEnabled()) {
+            enqueue(message.get());
+        }
+    }
+
+    /**
+     * Written to System.err at every level
+     */
+    public static void error(String message) {
+        enqueue(new ErrorLine(message));
+    }
+
+    /**
+     * Blocks until everything logged so far has been written, e.g. before
+     * printing to System.out directly
+     */
+    public static void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        enqueue(written);
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void enqueue(Object item) {
+        try {
+            QUEUE.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeLoop() {
+        List<Object> batch = new ArrayList<>();
+        StringBuilder lines = new StringBuilder();
+        while (true) {
+            try {
+                batch.add(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            QUEUE.drainTo(batch, MAX_BATCH - 1);
+
+            for (Object item : batch) {
+                if (item instanceof String line) {
+                    lines.append(line).append(System.lineSeparator());
+                    continue;
+                }
+                // Errors and flush requests go out after the lines queued before them
+                write(System.out, lines);
+                if (item instanceof ErrorLine error) {
+                    System.err.println(error.message);
+                } else if (item instanceof CountDownLatch written) {
+                    System.out.flush();
+                    written.countDown();
+                }
+            }
+            write(System.out, lines);
+            batch.clear();
+        }
+    }
+
+    private static void write(PrintStream out, StringBuilder lines) {
+        if (lines.length() > 0) {
+            out.print(lines);
+            out.flush();
+            lines.setLength(0);
+        }
+    }
+
+    private static final class ErrorLine {
+        private final String message;
+
+        ErrorLine(String message) {
+            this.message = message;
+        }
+    }
+}
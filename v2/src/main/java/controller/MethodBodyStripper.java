@@ -0,0 +1,238 @@
+package controller;
+
+/**
+ * Blanks out method, constructor and initializer bodies in Java source text
+ * so JavaParser only builds AST nodes for declarations.
+ *
+ * Body contents are replaced by spaces with line breaks kept, so positions
+ * and line numbers stay valid. Field initializers, including anonymous
+ * classes and lambdas assigned to fields, are left untouched. Local classes
+ * declared inside method bodies disappear along with the body.
+ */
+public final class MethodBodyStripper {
+
+    private MethodBodyStripper() {
+    }
+
+    /**
+     * Strips the first length chars of text without copying them
+     */
+    public static void stripInPlace(char[] text, int length) {
+        new Scanner(text, length).scanFile();
+    }
+
+    private static final class Scanner {
+        private final char[] text;
+        private final int length;
+        private int pos;
+
+        Scanner(char[] text, int length) {
+            this.text = text;
+            this.length = length;
+        }
+
+        /**
+         * Top level: every brace opens a type (or module) body
+         */
+        void scanFile() {
+            while (pos < length) {
+                char c = text[pos];
+                if (skipTrivia()) {
+                    continue;
+                }
+                pos++;
+                if (c == '{') {
+                    scanTypeBody();
+                }
+            }
+        }
+
+        /**
+         * Scans a type body after its opening brace, up to and including the closing brace
+         */
+        private void scanTypeBody() {
+            int parenDepth = 0;
+            boolean inInitializer = false;
+            boolean pendingType = false;
+            char previous = 0;
+
+            while (pos < length) {
+                if (skipTrivia()) {
+                    continue;
+                }
+                char c = text[pos];
+
+                if (Character.isJavaIdentifierStart(c)) {
+                    int start = pos;
+                    while (pos < length && Character.isJavaIdentifierPart(text[pos])) {
+                        pos++;
+                    }
+                    if (parenDepth == 0 && !inInitializer && previous != '.') {
+                        String word = new String(text, start, pos - start);
+                        // record is only a keyword when a type name follows
+                        if (isTypeKeyword(word) && (!word.equals("record") || identifierFollows())) {
+                            pendingType = true;
+                        }
+                    }
+                    previous = 'a';
+                    continue;
+                }
+
+                pos++;
+                if (c == '(') {
+                    parenDepth++;
+                } else if (c == ')') {
+                    parenDepth = Math.max(0, parenDepth - 1);
+                } else if (parenDepth > 0) {
+                    if (c == '{') {
+                        skipBalanced(false);
+                    }
+                } else if (c == '=') {
+                    inInitializer = true;
+                } else if (c == ';') {
+                    inInitializer = false;
+                    pendingType = false;
+                } else if (c == '{') {
+                    if (inInitializer) {
+                        // array initializers, anonymous classes and lambdas in field values
+                        skipBalanced(false);
+                    } else if (pendingType) {
+                        pendingType = false;
+                        scanTypeBody();
+                    } else {
+                        // method, constructor, initializer block or enum constant body
+                        skipBalanced(true);
+                    }
+                } else if (c == '}') {
+                    return;
+                }
+                previous = c;
+            }
+        }
+
+        /**
+         * Skips to the brace matching the one just consumed, optionally blanking what lies between
+         */
+        private void skipBalanced(boolean blank) {
+            int depth = 1;
+            while (pos < length) {
+                int start = pos;
+                if (skipTrivia()) {
+                    if (blank) {
+                        blank(start, pos);
+                    }
+                    continue;
+                }
+                char c = text[pos];
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}' && --depth == 0) {
+                    pos++;
+                    return;
+                }
+                if (blank) {
+                    blank(pos, pos + 1);
+                }
+                pos++;
+            }
+        }
+
+        /**
+         * Skips whitespace, a comment or a string, character or text block literal
+         * at the current position. Returns whether anything was skipped.
+         */
+        private boolean skipTrivia() {
+            char c = text[pos];
+            if (Character.isWhitespace(c)) {
+                pos++;
+                return true;
+            }
+            if (c == '/' && pos + 1 < length) {
+                if (text[pos + 1] == '/') {
+                    while (pos < length && text[pos] != '\n' && text[pos] != '\r') {
+                        pos++;
+                    }
+                    return true;
+                }
+                if (text[pos + 1] == '*') {
+                    int end = indexOf("*/", pos + 2);
+                    pos = end < 0 ? length : end + 2;
+                    return true;
+                }
+            }
+            if (c == '"') {
+                if (startsWith("\"\"\"", pos)) {
+                    skipQuoted(pos + 3, "\"\"\"");
+                } else {
+                    skipQuoted(pos + 1, "\"");
+                }
+                return true;
+            }
+            if (c == '\'') {
+                skipQuoted(pos + 1, "'");
+                return true;
+            }
+            return false;
+        }
+
+        private void skipQuoted(int from, String terminator) {
+            int i = from;
+            while (i < length) {
+                if (text[i] == '\\') {
+                    i += 2;
+                } else if (startsWith(terminator, i)) {
+                    pos = i + terminator.length();
+                    return;
+                } else if (terminator.length() == 1 && text[i] == '\n') {
+                    // unterminated literal; resume on the next line
+                    break;
+                } else {
+                    i++;
+                }
+            }
+            pos = Math.min(i, length);
+        }
+
+        private void blank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (text[i] != '\n' && text[i] != '\r') {
+                    text[i] = ' ';
+                }
+            }
+        }
+
+        private int indexOf(String needle, int from) {
+            for (int i = from; i + needle.length() <= length; i++) {
+                if (startsWith(needle, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean startsWith(String prefix, int at) {
+            if (at + prefix.length() > length) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (text[at + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isTypeKeyword(String word) {
+            return word.equals("class") || word.equals("interface")
+                    || word.equals("enum") || word.equals("record");
+        }
+
+        private boolean identifierFollows() {
+            int i = pos;
+            while (i < length && Character.isWhitespace(text[i])) {
+                i++;
+            }
+            return i < length && Character.isJavaIdentifierStart(text[i]);
+        }
+    }
+}
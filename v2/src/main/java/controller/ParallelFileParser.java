@@ -0,0 +1,157 @@
+package controller;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Parses Java files on a fixed pool of worker threads.
+ *
+ * JavaParser is not thread-safe, so every worker thread owns its own
+ * JavaFileParser. Results are merged back into the target parser in the
+ * order the files were given, which keeps the generated diagram identical
+ * to a serial run.
+ *
+ * In virtual-thread mode every file gets its own virtual thread, so slow
+ * reads overlap freely, while a semaphore keeps the number of files being
+ * parsed at the same time to the thread count. Virtual threads borrow their
+ * JavaFileParser from a pool, so parsers and their read buffers are reused
+ * just as on worker threads.
+ */
+public class ParallelFileParser {
+
+    // files read ahead of parsing, per parse permit, in virtual-thread mode
+    private static final int READ_AHEAD_PER_THREAD = 64;
+
+    private final int threadCount;
+    private final ParseCache cache;
+    private final boolean virtualThreads;
+
+    public ParallelFileParser(int threadCount) {
+        this(threadCount, null);
+    }
+
+    public ParallelFileParser(int threadCount, ParseCache cache) {
+        this(threadCount, cache, false);
+    }
+
+    /**
+     * @param virtualThreads use a virtual thread per file, with threadCount as the parse limit
+     */
+    public ParallelFileParser(int threadCount, ParseCache cache, boolean virtualThreads) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.cache = cache;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public List<JavaFileParser.ParseResult> parseAll(List<Path> files, JavaFileParser target) throws Exception {
+        return parseAll(files, target, null);
+    }
+
+    /**
+     * Parses all files, recording each file's parse time in metrics if given.
+     * Returns the merged results in file order.
+     */
+    public List<JavaFileParser.ParseResult> parseAll(List<Path> files, JavaFileParser target,
+            GenerationMetrics metrics) throws Exception {
+        if (virtualThreads) {
+            return parseOnVirtualThreads(files, target, metrics);
+        }
+
+        ThreadLocal<JavaFileParser> workerParser = ThreadLocal.withInitial(
+                () -> new JavaFileParser(cache, target.isSignaturesOnly()));
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+
+        try {
+            List<Future<JavaFileParser.ParseResult>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(executor.submit(() -> parseTimed(workerParser.get(), file, metrics)));
+            }
+            return mergeInOrder(futures, target);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<JavaFileParser.ParseResult> parseOnVirtualThreads(List<Path> files, JavaFileParser target,
+            GenerationMetrics metrics) throws Exception {
+        Semaphore parsePermits = new Semaphore(threadCount);
+        // Bounds open files and source text held while waiting for a parse permit
+        Semaphore readAhead = new Semaphore(threadCount * READ_AHEAD_PER_THREAD);
+        // never holds more parsers than files in flight, which readAhead bounds
+        ConcurrentLinkedQueue<JavaFileParser> idleParsers = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        try {
+            List<Future<JavaFileParser.ParseResult>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                readAhead.acquire();
+                futures.add(executor.submit(() -> {
+                    JavaFileParser parser = idleParsers.poll();
+                    if (parser == null) {
+                        parser = new JavaFileParser(cache, target.isSignaturesOnly(), parsePermits);
+                    }
+                    try {
+                        return parseTimed(parser, file, metrics);
+                    } finally {
+                        idleParsers.offer(parser);
+                        readAhead.release();
+                    }
+                }));
+            }
+            return mergeInOrder(futures, target);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses one file and records its read and parse time, without the time
+     * spent queueing for a parse permit
+     */
+    private static JavaFileParser.ParseResult parseTimed(JavaFileParser parser, Path file, GenerationMetrics metrics)
+            throws Exception {
+        parser.takePermitWaitNanos();
+        long start = System.nanoTime();
+        JavaFileParser.ParseResult result = parser.parse(file);
+        long elapsed = System.nanoTime() - start - parser.takePermitWaitNanos();
+        if (metrics != null) {
+            metrics.recordFile(file, elapsed);
+        }
+        return result;
+    }
+
+    private List<JavaFileParser.ParseResult> mergeInOrder(List<Future<JavaFileParser.ParseResult>> futures,
+            JavaFileParser target) throws Exception {
+        List<JavaFileParser.ParseResult> results = new ArrayList<>(futures.size());
+        // Merge in submission order so output does not depend on scheduling
+        for (Future<JavaFileParser.ParseResult> future : futures) {
+            JavaFileParser.ParseResult result = getResult(future);
+            Log.debug(() -> "  Parsed: " + result.getFilePath().getFileName());
+            target.addParseResult(result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    private JavaFileParser.ParseResult getResult(Future<JavaFileParser.ParseResult> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
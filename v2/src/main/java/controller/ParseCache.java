@@ -0,0 +1,257 @@
+package controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.ClassModel;
+import model.ClassSummary;
+
+/**
+ * Cache of parse results keyed by source path and content hash.
+ *
+ * On disk, each source file gets one entry file named after the hash of its
+ * path. A long-running process can additionally keep entries in memory.
+ * An entry is reused only when the stored content hash matches the current
+ * file contents, so unchanged files skip JavaParser entirely.
+ */
+public class ParseCache {
+
+    public static final String DEFAULT_DIRECTORY = ".umlcache";
+
+    // bump whenever the serialized model classes change shape
+    private static final int FORMAT_VERSION = 4;
+
+    private final Path cacheDir;
+    // null unless entries are kept in memory
+    private final Map<String, MemoryEntry> memory;
+    // files being looked up right now, so concurrent callers of a shared cache parse each only once
+    private final Map<String, ReentrantLock> loading = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public ParseCache(Path cacheDir) throws IOException {
+        this(cacheDir, false);
+    }
+
+    /**
+     * @param cacheDir on-disk cache directory, or null for a memory-only cache
+     * @param keepInMemory whether to also keep entries in memory between lookups
+     */
+    public ParseCache(Path cacheDir, boolean keepInMemory) throws IOException {
+        if (cacheDir == null && !keepInMemory) {
+            throw new IllegalArgumentException("Cache needs a directory or an in-memory store");
+        }
+        this.cacheDir = cacheDir;
+        this.memory = keepInMemory ? new ConcurrentHashMap<>() : null;
+        if (cacheDir != null) {
+            Files.createDirectories(cacheDir);
+        }
+    }
+
+    public static ParseCache inMemory() {
+        try {
+            return new ParseCache(null, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the cached result for a file, parsing and storing it on a miss
+     */
+    public JavaFileParser.ParseResult parse(Path filePath, JavaFileParser parser) throws IOException {
+        if (memory == null) {
+            return load(filePath, parser);
+        }
+        // Callers sharing this cache, e.g. batch entries with overlapping inputs, wait for each other
+        String key = key(filePath);
+        ReentrantLock lock = loading.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            return load(filePath, parser);
+        } finally {
+            lock.unlock();
+            loading.remove(key, lock);
+        }
+    }
+
+    private JavaFileParser.ParseResult load(Path filePath, JavaFileParser parser) throws IOException {
+        SourceLoader.Source source = parser.getSourceLoader().load(filePath);
+        // Signatures-only results can differ, e.g. they lack local classes
+        String contentHash = sha256(source.bytes()) + (parser.isSignaturesOnly() ? ":signatures" : "");
+        String key = key(filePath);
+
+        if (memory != null) {
+            MemoryEntry entry = memory.get(key);
+            if (entry != null && entry.contentHash.equals(contentHash)) {
+                hits.incrementAndGet();
+                return entry.toResult(filePath);
+            }
+        }
+
+        JavaFileParser.ParseResult cached = cacheDir != null ? read(entryFile(filePath), filePath, contentHash) : null;
+        if (cached != null) {
+            hits.incrementAndGet();
+            remember(key, contentHash, cached);
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        JavaFileParser.ParseResult result = parser.parseLoaded(filePath, source);
+        if (cacheDir != null) {
+            write(entryFile(filePath), filePath, contentHash, result);
+        }
+        remember(key, contentHash, result);
+        return result;
+    }
+
+    /**
+     * Drops in-memory entries whose source file no longer exists
+     */
+    public void evictMissing() {
+        if (memory != null) {
+            memory.keySet().removeIf(key -> !Files.exists(Path.of(key)));
+        }
+    }
+
+    public int size() {
+        return memory != null ? memory.size() : 0;
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    private JavaFileParser.ParseResult read(Path entryFile, Path filePath, String contentHash) {
+        if (!Files.isRegularFile(entryFile)) {
+            return null;
+        }
+
+        try (InputStream in = Files.newInputStream(entryFile);
+             ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            CacheEntry entry = (CacheEntry) objectIn.readObject();
+            if (entry.version != FORMAT_VERSION
+                    || !entry.sourcePath.equals(key(filePath))
+                    || !entry.contentHash.equals(contentHash)) {
+                return null;
+            }
+            return JavaFileParser.ParseResult.fromCache(filePath, entry.classModels, entry.classSummaries);
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // A corrupt or outdated entry is treated as a miss and rewritten
+            return null;
+        }
+    }
+
+    private void write(Path entryFile, Path filePath, String contentHash, JavaFileParser.ParseResult result)
+            throws IOException {
+        CacheEntry entry = new CacheEntry(key(filePath), contentHash,
+                result.getClassModels(), result.getClassSummaries());
+
+        // Write to a temporary file first so concurrent readers never see a partial entry
+        Path tempFile = Files.createTempFile(cacheDir, "entry", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tempFile);
+                 ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+                objectOut.writeObject(entry);
+            }
+            try {
+                Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private void remember(String key, String contentHash, JavaFileParser.ParseResult result) {
+        if (memory != null) {
+            memory.put(key, new MemoryEntry(contentHash, result.getClassModels(), result.getClassSummaries()));
+        }
+    }
+
+    private Path entryFile(Path filePath) {
+        return cacheDir.resolve(sha256(key(filePath).getBytes(StandardCharsets.UTF_8)) + ".bin");
+    }
+
+    private static String key(Path filePath) {
+        return filePath.toAbsolutePath().normalize().toString();
+    }
+
+    private static String sha256(byte[] data) {
+        return sha256(ByteBuffer.wrap(data));
+    }
+
+    private static String sha256(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class MemoryEntry {
+        private final String contentHash;
+        private final List<ClassModel> classModels;
+        private final List<ClassSummary> classSummaries;
+
+        MemoryEntry(String contentHash, List<ClassModel> classModels, List<ClassSummary> classSummaries) {
+            this.contentHash = contentHash;
+            this.classModels = List.copyOf(classModels);
+            this.classSummaries = List.copyOf(classSummaries);
+        }
+
+        JavaFileParser.ParseResult toResult(Path filePath) {
+            return JavaFileParser.ParseResult.fromCache(filePath, classModels, classSummaries);
+        }
+    }
+
+    private static class CacheEntry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int version;
+        private final String sourcePath;
+        private final String contentHash;
+        private final List<ClassModel> classModels;
+        private final List<ClassSummary> classSummaries;
+
+        CacheEntry(String sourcePath, String contentHash, List<ClassModel> classModels,
+                List<ClassSummary> classSummaries) {
+            this.version = FORMAT_VERSION;
+            this.sourcePath = sourcePath;
+            this.contentHash = contentHash;
+            this.classModels = new ArrayList<>(classModels);
+            this.classSummaries = new ArrayList<>(classSummaries);
+        }
+    }
+}
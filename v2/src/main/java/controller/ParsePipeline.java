@@ -0,0 +1,299 @@
+package controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import model.ClassModel;
+import model.ClassSummary;
+
+/**
+ * Runs file discovery, parsing and relationship analysis as overlapping stages.
+ *
+ * A walker thread feeds paths into a bounded queue, a pool of workers parses
+ * them into a second bounded queue, and the calling thread merges results in
+ * discovery order and analyzes each class as soon as it arrives. At most
+ * {@code window} files are in flight at once, which bounds memory no matter
+ * how far the walker or the workers get ahead of a slow file.
+ *
+ * A class that references a type name not resolved for good yet is analyzed
+ * again when a class with that name arrives, so the final diagram is
+ * identical to a phased run.
+ */
+public class ParsePipeline {
+
+    private static final int DEFAULT_WINDOW_PER_THREAD = 64;
+
+    private final int threadCount;
+    private final ParseCache cache;
+    private final int window;
+    private int fileCount;
+
+    public ParsePipeline(int threadCount, ParseCache cache) {
+        this(threadCount, cache, threadCount * DEFAULT_WINDOW_PER_THREAD);
+    }
+
+    public ParsePipeline(int threadCount, ParseCache cache, int window) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.cache = cache;
+        this.window = Math.max(window, threadCount);
+    }
+
+    /**
+     * Parses every Java file below inputPath into target and, if requested,
+     * adds all relationships to target's model.
+     *
+     * @return the analyzer used, or null when relationships are skipped
+     */
+    public RelationshipAnalyzer run(Path inputPath, JavaFileParser target, boolean includeRelationships,
+            GenerationMetrics metrics) throws Exception {
+        checkInput(inputPath);
+
+        BlockingQueue<FileTask> paths = new ArrayBlockingQueue<>(window);
+        BlockingQueue<FileTask> parsed = new ArrayBlockingQueue<>(window);
+        Semaphore inFlight = new Semaphore(window);
+        Walker walker = new Walker(inputPath, paths, inFlight);
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        Analysis analysis = includeRelationships ? new Analysis(new RelationshipAnalyzer(target.getUmlModel())) : null;
+
+        Thread walkerThread = new Thread(walker, "uml-walker");
+        walkerThread.setDaemon(true);
+        walkerThread.start();
+        try {
+            ThreadLocal<JavaFileParser> workerParser = ThreadLocal.withInitial(
+                    () -> new JavaFileParser(cache, target.isSignaturesOnly()));
+            for (int i = 0; i < threadCount; i++) {
+                workers.submit(() -> parseLoop(paths, parsed, workerParser, metrics));
+            }
+
+            // Reorder buffer; bounded by the in-flight window
+            Map<Integer, FileTask> pending = new HashMap<>();
+            int next = 0;
+            int finishedWorkers = 0;
+            while (finishedWorkers < threadCount) {
+                FileTask task = parsed.take();
+                if (task.isEnd()) {
+                    finishedWorkers++;
+                    continue;
+                }
+                pending.put(task.index, task);
+                for (FileTask ready = pending.remove(next); ready != null; ready = pending.remove(next)) {
+                    inFlight.release();
+                    next++;
+                    merge(ready, target, analysis);
+                }
+            }
+
+            if (walker.error != null) {
+                throw walker.error;
+            }
+            fileCount = next;
+            if (analysis != null) {
+                analysis.finish();
+                return analysis.analyzer;
+            }
+            return null;
+        } finally {
+            walkerThread.interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    private void parseLoop(BlockingQueue<FileTask> paths, BlockingQueue<FileTask> parsed,
+            ThreadLocal<JavaFileParser> workerParser, GenerationMetrics metrics) {
+        try {
+            while (true) {
+                FileTask task = paths.take();
+                if (task.isEnd()) {
+                    // pass the pill on so every worker sees one
+                    paths.put(task);
+                    parsed.put(task);
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    task.result = workerParser.get().parse(task.path);
+                } catch (Exception e) {
+                    task.error = e;
+                } catch (Throwable t) {
+                    // e.g. a stack overflow on deeply nested source; never leave the merger waiting
+                    task.error = new ExecutionException(t);
+                }
+                if (metrics != null) {
+                    metrics.recordFile(task.path, System.nanoTime() - start);
+                }
+                parsed.put(task);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void merge(FileTask task, JavaFileParser target, Analysis analysis) throws Exception {
+        if (task.error != null) {
+            throw task.error;
+        }
+        Log.debug(() -> "  Parsed: " + task.path.getFileName());
+        target.addParseResult(task.result);
+        if (analysis != null) {
+            analysis.add(task.result);
+        }
+    }
+
+    private static void checkInput(Path inputPath) {
+        if (!Files.exists(inputPath)) {
+            throw new IllegalArgumentException("Path does not exist: " + inputPath);
+        }
+        if (!Files.isDirectory(inputPath) && !(Files.isRegularFile(inputPath) && isJavaFile(inputPath))) {
+            throw new IllegalArgumentException("Input path must be a .java file or directory: " + inputPath);
+        }
+    }
+
+    private static boolean isJavaFile(Path path) {
+        return path.toString().endsWith(".java");
+    }
+
+    /**
+     * One file moving through the pipeline; a null path marks the end of input
+     */
+    private static class FileTask {
+        private static final FileTask END = new FileTask(-1, null);
+
+        private final int index;
+        private final Path path;
+        private JavaFileParser.ParseResult result;
+        private Exception error;
+
+        FileTask(int index, Path path) {
+            this.index = index;
+            this.path = path;
+        }
+
+        boolean isEnd() {
+            return path == null;
+        }
+    }
+
+    /**
+     * Walks the input tree, blocking whenever the in-flight window is full
+     */
+    private static class Walker implements Runnable {
+        private final Path inputPath;
+        private final BlockingQueue<FileTask> paths;
+        private final Semaphore inFlight;
+        private volatile Exception error;
+
+        Walker(Path inputPath, BlockingQueue<FileTask> paths, Semaphore inFlight) {
+            this.inputPath = inputPath;
+            this.paths = paths;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public void run() {
+            try {
+                try (Stream<Path> files = Files.walk(inputPath)) {
+                    int index = 0;
+                    for (Path path : (Iterable<Path>) files::iterator) {
+                        if (isJavaFile(path) && Files.isRegularFile(path)) {
+                            inFlight.acquire();
+                            paths.put(new FileTask(index++, path));
+                        }
+                    }
+                } catch (Exception e) {
+                    error = e;
+                }
+                paths.put(FileTask.END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Analyzes classes in arrival order, re-analyzing a name group when a
+     * class arrives whose simple name the group used before that name
+     * resolved for good
+     */
+    private static class Analysis {
+        private final RelationshipAnalyzer analyzer;
+        private final Map<String, RelationshipAnalyzer.NameGroup> groups = new LinkedHashMap<>();
+        // simple type name -> groups whose resolution of it may still change
+        private final Map<String, Set<RelationshipAnalyzer.NameGroup>> waiting = new HashMap<>();
+        // merge order: one (group, member) pair per class, in declaration order
+        private final List<RelationshipAnalyzer.NameGroup> order = new ArrayList<>();
+        private final List<Integer> members = new ArrayList<>();
+
+        Analysis(RelationshipAnalyzer analyzer) {
+            this.analyzer = analyzer;
+        }
+
+        void add(JavaFileParser.ParseResult result) {
+            for (ClassModel classModel : result.getClassModels()) {
+                analyzer.addClass(classModel);
+            }
+
+            // Groups that referenced one of the new names are now out of date
+            Set<RelationshipAnalyzer.NameGroup> stale = new HashSet<>();
+            for (ClassModel classModel : result.getClassModels()) {
+                Set<RelationshipAnalyzer.NameGroup> affected = waiting.remove(classModel.getClassName());
+                if (affected != null) {
+                    stale.addAll(affected);
+                }
+            }
+            for (RelationshipAnalyzer.NameGroup group : stale) {
+                group.reanalyze();
+                // a name can resolve differently more than once, e.g. when a second class with it arrives
+                for (ClassSummary member : group.getMembers()) {
+                    waitForUnsettled(group, member);
+                }
+            }
+
+            for (ClassSummary summary : result.getClassSummaries()) {
+                RelationshipAnalyzer.NameGroup group = groups.computeIfAbsent(
+                        summary.getQualifiedName(), name -> analyzer.new NameGroup());
+                order.add(group);
+                members.add(group.add(summary));
+                waitForUnsettled(group, summary);
+            }
+        }
+
+        /**
+         * Makes the group wait for every type name whose resolution may still change
+         */
+        private void waitForUnsettled(RelationshipAnalyzer.NameGroup group, ClassSummary summary) {
+            for (String type : summary.getReferencedTypes()) {
+                if (!analyzer.isSettled(summary, type)) {
+                    waiting.computeIfAbsent(TypeResolver.simpleName(type), k -> new HashSet<>()).add(group);
+                }
+            }
+        }
+
+        void finish() {
+            for (int i = 0; i < order.size(); i++) {
+                order.get(i).merge(members.get(i));
+            }
+            analyzer.finishAnalysis();
+        }
+    }
+}
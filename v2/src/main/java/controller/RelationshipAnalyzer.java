@@ -1,169 +1,484 @@
 package controller;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
-import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.ConstructorDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.body.Parameter;
-import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.type.ClassOrInterfaceType;
-import com.github.javaparser.ast.type.Type;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import model.ClassModel;
+import model.ClassSummary;
 import model.DependencyModel;
 import model.DependencyType;
+import model.RelationshipIndex;
 import model.UMLModel;
 
 public class RelationshipAnalyzer {
     
     private final UMLModel umlModel;
-    private final Set<String> availableClasses;
+    // classes are keyed by qualified name; type names are resolved per file
+    private final TypeResolver availableClasses;
     private final Map<String, ClassModel> classModelMap;
-    private final Map<String, ClassOrInterfaceDeclaration> astNodeMap;
+    // Bookkeeping for reanalyze: every class and summary per qualified name, in
+    // declaration order, the simple type names each class references and the reverse of that
+    private final Map<String, List<ClassModel>> modelsByName;
+    private final Map<String, List<ClassSummary>> summariesByName;
+    private final Map<String, Set<String>> referencesByName;
+    private final Map<String, Set<String>> referencedBy;
+    // the relationships each summary added, so reanalyze can restore the order of a full analysis
+    private final Map<ClassSummary, List<DependencyModel>> relationshipsBySummary;
     
     public RelationshipAnalyzer(UMLModel umlModel) {
         this.umlModel = umlModel;
-        this.availableClasses = new HashSet<>();
+        this.availableClasses = new TypeResolver();
         this.classModelMap = new HashMap<>();
-        this.astNodeMap = new HashMap<>();
+        this.modelsByName = new HashMap<>();
+        this.summariesByName = new HashMap<>();
+        this.referencesByName = new HashMap<>();
+        this.referencedBy = new HashMap<>();
+        this.relationshipsBySummary = new IdentityHashMap<>();
         
         // Populate available classes from the UML model
         for (ClassModel classModel : umlModel.getClasses()) {
-            String className = classModel.getClassName();
-            availableClasses.add(className);
-            classModelMap.put(className, classModel);
+            registerClass(classModel);
         }
     }
     
     /**
      * Main method to analyze all relationships between classes
      */
-    public void analyzeAllRelationships(List<ClassOrInterfaceDeclaration> classDeclarations) {
-        // First, build the AST node map
-        buildASTNodeMap(classDeclarations);
-        
-        // Then analyze relationships for each class
-        for (ClassOrInterfaceDeclaration classDecl : classDeclarations) {
-            String className = classDecl.getNameAsString();
-            ClassModel fromClass = classModelMap.get(className);
+    public void analyzeAllRelationships(List<ClassSummary> classSummaries) {
+        ModelSink sink = new ModelSink();
+        for (ClassSummary summary : classSummaries) {
+            addSummary(summary);
+            ClassModel fromClass = classModelMap.get(summary.getQualifiedName());
             
             if (fromClass != null) {
-                System.out.println("Analyzing relationships for: " + className);
-                analyzeClassRelationships(classDecl, fromClass);
+                Log.debug(() -> "Analyzing relationships for: " + summary.getClassName());
+                sink.startSummary(summary);
+                analyzeClassRelationships(summary, fromClass, sink);
+            }
+        }
+        
+        finishAnalysis();
+    }
+    
+    /**
+     * Analyzes classes concurrently on a fork-join pool of the given size.
+     *
+     * Every relationship check only looks at edges leaving the class being
+     * analyzed, so classes are independent apart from those sharing a qualified
+     * name. Classes are grouped by that name, each group is analyzed in order against a
+     * local index, and the per-class results are merged in declaration order.
+     * The resulting model is identical to the serial analysis.
+     */
+    public void analyzeAllRelationships(List<ClassSummary> classSummaries, int threadCount) throws InterruptedException {
+        if (threadCount <= 1) {
+            analyzeAllRelationships(classSummaries);
+            return;
+        }
+        
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < classSummaries.size(); i++) {
+            addSummary(classSummaries.get(i));
+            String className = classSummaries.get(i).getQualifiedName();
+            if (classModelMap.containsKey(className)) {
+                groups.computeIfAbsent(className, k -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        ClassRelationships[] results = new ClassRelationships[classSummaries.size()];
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            pool.submit(() -> groups.values().parallelStream().forEach(indexes -> {
+                LocalSink sink = new LocalSink();
+                for (int index : indexes) {
+                    ClassSummary summary = classSummaries.get(index);
+                    results[index] = sink.current = new ClassRelationships();
+                    analyzeClassRelationships(summary, classModelMap.get(summary.getQualifiedName()), sink);
+                }
+            })).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
             }
+            throw new IllegalStateException("Relationship analysis failed", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        // Merge in declaration order so output does not depend on scheduling
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) {
+                mergeResult(classSummaries.get(i), results[i]);
+            }
+        }
+        
+        finishAnalysis();
+    }
+    
+    /**
+     * Registers a class parsed after this analyzer was created
+     */
+    public void addClass(ClassModel classModel) {
+        registerClass(classModel);
+    }
+    
+    private void registerClass(ClassModel classModel) {
+        String className = classModel.getQualifiedName();
+        availableClasses.add(className);
+        classModelMap.put(className, classModel);
+        modelsByName.computeIfAbsent(className, k -> new ArrayList<>()).add(classModel);
+    }
+    
+    /**
+     * Registers a class and its summary added to the model after the initial analysis
+     */
+    public void addClass(ClassModel classModel, ClassSummary summary) {
+        registerClass(classModel);
+        addSummary(summary);
+    }
+    
+    /**
+     * Forgets a class removed from the model
+     */
+    public void removeClass(ClassModel classModel, ClassSummary summary) {
+        String className = classModel.getQualifiedName();
+        List<ClassModel> models = modelsByName.get(className);
+        if (models != null && removeByIdentity(models, classModel) && models.isEmpty()) {
+            modelsByName.remove(className);
+            availableClasses.remove(className);
+            classModelMap.remove(className);
+        } else if (models != null) {
+            classModelMap.put(className, models.get(models.size() - 1));
+        }
+        
+        relationshipsBySummary.remove(summary);
+        List<ClassSummary> summaries = summariesByName.get(summary.getQualifiedName());
+        if (summaries != null) {
+            removeByIdentity(summaries, summary);
+            if (summaries.isEmpty()) {
+                summariesByName.remove(summary.getQualifiedName());
+            }
+            indexReferences(summary.getQualifiedName());
+        }
+    }
+    
+    /**
+     * Swaps a changed class for its new version, keeping its place among classes of the same name
+     */
+    public void replaceClass(ClassModel oldModel, ClassSummary oldSummary, ClassModel newModel, ClassSummary newSummary) {
+        if (!oldModel.getQualifiedName().equals(newModel.getQualifiedName())) {
+            removeClass(oldModel, oldSummary);
+            addClass(newModel, newSummary);
+            return;
         }
         
-        System.out.println("Relationship analysis complete. Found " + 
-                         umlModel.getRelationships().size() + " relationships.");
+        List<ClassModel> models = modelsByName.get(oldModel.getQualifiedName());
+        List<ClassSummary> summaries = summariesByName.get(oldSummary.getQualifiedName());
+        int modelIndex = models != null ? indexOfIdentity(models, oldModel) : -1;
+        int summaryIndex = summaries != null ? indexOfIdentity(summaries, oldSummary) : -1;
+        if (modelIndex < 0 || summaryIndex < 0) {
+            throw new IllegalArgumentException("Unknown class: " + oldModel.getQualifiedName());
+        }
+        
+        models.set(modelIndex, newModel);
+        classModelMap.put(newModel.getQualifiedName(), models.get(models.size() - 1));
+        summaries.set(summaryIndex, newSummary);
+        relationshipsBySummary.remove(oldSummary);
+        indexReferences(newSummary.getQualifiedName());
+    }
+    
+    /**
+     * Rebuilds the relationships that the given class changes can affect: the
+     * edges leaving those classes and the edges leaving every class that
+     * references one of their simple names. Classes are given by qualified
+     * name, and the changes must have been registered
+     * with addClass, removeClass or replaceClass first. Returns the number of
+     * classes whose relationships were rebuilt.
+     */
+    public int reanalyze(Set<String> changedClasses) {
+        Set<String> affected = new LinkedHashSet<>(changedClasses);
+        for (String className : changedClasses) {
+            affected.addAll(referencedBy.getOrDefault(TypeResolver.simpleName(className), Set.of()));
+        }
+        
+        umlModel.removeRelationshipsFrom(affected);
+        ModelSink sink = new ModelSink();
+        for (String className : affected) {
+            ClassModel fromClass = classModelMap.get(className);
+            if (fromClass == null) {
+                continue;
+            }
+            Log.debug(() -> "Analyzing relationships for: " + fromClass.getClassName());
+            for (ClassSummary summary : summariesByName.getOrDefault(className, List.of())) {
+                sink.startSummary(summary);
+                analyzeClassRelationships(summary, fromClass, sink);
+            }
+        }
+        return affected.size();
     }
     
-    private void buildASTNodeMap(List<ClassOrInterfaceDeclaration> classDeclarations) {
-        for (ClassOrInterfaceDeclaration classDecl : classDeclarations) {
-            astNodeMap.put(classDecl.getNameAsString(), classDecl);
+    /**
+     * Puts the classes back in the order of the diagram after the caller
+     * rearranged it. Same-named classes are analyzed, and the last one is
+     * linked to, in that order. Both lists hold every class, one entry per
+     * declaration, in the new order.
+     */
+    public void reorderClasses(List<ClassModel> classModels, List<ClassSummary> summaries) {
+        modelsByName.clear();
+        for (ClassModel classModel : classModels) {
+            modelsByName.computeIfAbsent(classModel.getQualifiedName(), k -> new ArrayList<>()).add(classModel);
+            classModelMap.put(classModel.getQualifiedName(), classModel);
+        }
+        summariesByName.clear();
+        for (ClassSummary summary : summaries) {
+            summariesByName.computeIfAbsent(summary.getQualifiedName(), k -> new ArrayList<>()).add(summary);
         }
     }
     
+    /**
+     * Puts the model's relationships in the order a full analysis of the
+     * given summaries adds them. reanalyze appends what it rebuilds, so
+     * call this after it to get the same diagram as a fresh run.
+     */
+    public void restoreRelationshipOrder(List<ClassSummary> summaries) {
+        List<DependencyModel> ordered = new ArrayList<>(umlModel.getRelationshipCount());
+        for (ClassSummary summary : summaries) {
+            ordered.addAll(relationshipsBySummary.getOrDefault(summary, List.of()));
+        }
+        umlModel.reorderRelationships(ordered);
+    }
+    
+    private void addSummary(ClassSummary summary) {
+        String className = summary.getQualifiedName();
+        summariesByName.computeIfAbsent(className, k -> new ArrayList<>()).add(summary);
+        Set<String> references = referencesByName.computeIfAbsent(className, k -> new HashSet<>());
+        for (String typeName : summary.getReferencedTypes()) {
+            String type = TypeResolver.simpleName(typeName);
+            if (references.add(type)) {
+                referencedBy.computeIfAbsent(type, k -> new HashSet<>()).add(className);
+            }
+        }
+    }
+    
+    /**
+     * Recomputes the reverse index entries of one class name from its current summaries
+     */
+    private void indexReferences(String className) {
+        Set<String> types = new HashSet<>();
+        for (ClassSummary summary : summariesByName.getOrDefault(className, List.of())) {
+            for (String typeName : summary.getReferencedTypes()) {
+                types.add(TypeResolver.simpleName(typeName));
+            }
+        }
+        for (String type : referencesByName.getOrDefault(className, Set.of())) {
+            Set<String> referencing = referencedBy.get(type);
+            if (!types.contains(type) && referencing != null) {
+                referencing.remove(className);
+                if (referencing.isEmpty()) {
+                    referencedBy.remove(type);
+                }
+            }
+        }
+        for (String type : types) {
+            referencedBy.computeIfAbsent(type, k -> new HashSet<>()).add(className);
+        }
+        if (types.isEmpty()) {
+            referencesByName.remove(className);
+        } else {
+            referencesByName.put(className, types);
+        }
+    }
+    
+    private static <T> int indexOfIdentity(List<T> list, T element) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == element) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static <T> boolean removeByIdentity(List<T> list, T element) {
+        int index = indexOfIdentity(list, element);
+        if (index >= 0) {
+            list.remove(index);
+        }
+        return index >= 0;
+    }
+    
+    public boolean isKnownClass(String qualifiedName) {
+        return availableClasses.contains(qualifiedName);
+    }
+    
+    /**
+     * Whether a type name used by the given class resolves the same way whatever classes are added later
+     */
+    public boolean isSettled(ClassSummary from, String typeName) {
+        return availableClasses.isSettled(from, typeName);
+    }
+    
+    private ClassModel resolve(ClassSummary from, String typeName) {
+        String qualifiedName = availableClasses.resolve(from, typeName);
+        return qualifiedName != null ? classModelMap.get(qualifiedName) : null;
+    }
+    
+    /**
+     * Adds one class's relationships to the model and logs its lines as one block
+     */
+    private void mergeResult(ClassSummary summary, ClassRelationships result) {
+        Log.debug(() -> "Analyzing relationships for: " + summary.getClassName() + result.log);
+        for (DependencyModel dependency : result.relationships) {
+            umlModel.addRelationshipToDiagram(dependency);
+        }
+        relationshipsBySummary.put(summary, result.relationships);
+    }
+    
+    /**
+     * Incremental analysis of the classes sharing one qualified name, for
+     * callers that learn about classes one at a time. Results only hold once
+     * every type the members reference resolves for good, so a group is
+     * re-analyzed when a class with a name it was waiting for shows up later.
+     */
+    class NameGroup {
+        private final List<ClassSummary> members = new ArrayList<>();
+        private final List<ClassRelationships> results = new ArrayList<>();
+        private LocalSink sink = new LocalSink();
+        
+        /**
+         * Analyzes a newly parsed member after the earlier ones; returns its position in the group
+         */
+        int add(ClassSummary summary) {
+            addSummary(summary);
+            members.add(summary);
+            results.add(analyze(summary));
+            return members.size() - 1;
+        }
+        
+        List<ClassSummary> getMembers() {
+            return members;
+        }
+        
+        void reanalyze() {
+            sink = new LocalSink();
+            for (int i = 0; i < members.size(); i++) {
+                results.set(i, analyze(members.get(i)));
+            }
+        }
+        
+        /**
+         * Adds a member's relationships to the model
+         */
+        void merge(int member) {
+            mergeResult(members.get(member), results.get(member));
+        }
+        
+        private ClassRelationships analyze(ClassSummary summary) {
+            ClassRelationships result = sink.current = new ClassRelationships();
+            analyzeClassRelationships(summary, classModelMap.get(summary.getQualifiedName()), sink);
+            return result;
+        }
+    }
+    
+    /**
+     * Prints the closing line once all groups have been merged
+     */
+    void finishAnalysis() {
+        Log.info("Relationship analysis complete. Found " + 
+                         umlModel.getRelationshipCount() + " relationships.");
+    }
+    
     /**
      * Analyzes all types of relationships for a single class
      */
-    private void analyzeClassRelationships(ClassOrInterfaceDeclaration classDecl, ClassModel fromClass) {
+    private void analyzeClassRelationships(ClassSummary summary, ClassModel fromClass, RelationshipSink sink) {
         // 1. Inheritance relationships (extends, implements)
-        analyzeInheritanceRelationships(classDecl, fromClass);
+        analyzeInheritanceRelationships(summary, fromClass, sink);
         
         // 2. Field-based relationships (composition, aggregation, association)
-        analyzeFieldRelationships(classDecl, fromClass);
+        analyzeFieldRelationships(summary, fromClass, sink);
         
         // 3. Method-based relationships (dependency)
-        analyzeMethodRelationships(classDecl, fromClass);
+        analyzeMethodRelationships(summary, fromClass, sink);
         
         // 4. NEW: Constructor-based relationships (dependency)
-        analyzeConstructorRelationships(classDecl, fromClass);
+        analyzeConstructorRelationships(summary, fromClass, sink);
     }
     
     /**
      * Analyzes inheritance (extends) and realization (implements) relationships
      */
-    private void analyzeInheritanceRelationships(ClassOrInterfaceDeclaration classDecl, ClassModel fromClass) {
+    private void analyzeInheritanceRelationships(ClassSummary summary, ClassModel fromClass, RelationshipSink sink) {
         // Check extends relationships (inheritance)
-        classDecl.getExtendedTypes().forEach(extendedType -> {
-            String parentClassName = extractClassName(extendedType);
-            if (availableClasses.contains(parentClassName)) {
-                ClassModel toClass = classModelMap.get(parentClassName);
-                if (toClass != null && !relationshipExists(fromClass, toClass, DependencyType.INHERITANCE)) {
+        for (String parentClassName : summary.getExtendedTypes()) {
+            ClassModel toClass = resolve(summary, parentClassName);
+            if (toClass != null) {
+                if (!sink.exists(fromClass, toClass, DependencyType.INHERITANCE)) {
                     DependencyModel dependency = new DependencyModel(fromClass, toClass, DependencyType.INHERITANCE);
-                    umlModel.addRelationshipToDiagram(dependency);
-                    System.out.println("  Found inheritance: " + fromClass.getClassName() + " --|> " + parentClassName);
+                    sink.add(dependency, () -> "  Found inheritance: " + fromClass.getClassName() + " --|> " + parentClassName);
                 }
             }
-        });
+        }
         
         // Check implements relationships (realization)
-        classDecl.getImplementedTypes().forEach(implementedType -> {
-            String interfaceName = extractClassName(implementedType);
-            if (availableClasses.contains(interfaceName)) {
-                ClassModel toClass = classModelMap.get(interfaceName);
-                if (toClass != null && !relationshipExists(fromClass, toClass, DependencyType.REALIZATION)) {
+        for (String interfaceName : summary.getImplementedTypes()) {
+            ClassModel toClass = resolve(summary, interfaceName);
+            if (toClass != null) {
+                if (!sink.exists(fromClass, toClass, DependencyType.REALIZATION)) {
                     DependencyModel dependency = new DependencyModel(fromClass, toClass, DependencyType.REALIZATION);
-                    umlModel.addRelationshipToDiagram(dependency);
-                    System.out.println("  Found realization: " + fromClass.getClassName() + " ..|> " + interfaceName);
+                    sink.add(dependency, () -> "  Found realization: " + fromClass.getClassName() + " ..|> " + interfaceName);
                 }
             }
-        });
+        }
     }
     
     /**
      * Analyzes field-based relationships (composition, aggregation, association)
      */
-    private void analyzeFieldRelationships(ClassOrInterfaceDeclaration classDecl, ClassModel fromClass) {
-        for (FieldDeclaration field : classDecl.getFields()) {
-            // Analyze each variable in the field declaration
-            for (VariableDeclarator variable : field.getVariables()) {
-                analyzeFieldVariable(field, variable, fromClass);
-            }
+    private void analyzeFieldRelationships(ClassSummary summary, ClassModel fromClass, RelationshipSink sink) {
+        for (ClassSummary.FieldReference field : summary.getFields()) {
+            analyzeFieldVariable(summary, field, fromClass, sink);
         }
     }
     
-    private void analyzeFieldVariable(FieldDeclaration field, VariableDeclarator variable, ClassModel fromClass) {
-        Type fieldType = field.getElementType();
-        String fieldName = variable.getNameAsString();
+    private void analyzeFieldVariable(ClassSummary summary, ClassSummary.FieldReference field, ClassModel fromClass, RelationshipSink sink) {
+        String fieldName = field.getName();
         
         // Handle direct class references
-        String directClassName = extractClassName(fieldType);
-        if (availableClasses.contains(directClassName)) {
+        String directClassName = field.getTypeName();
+        ClassModel directClass = resolve(summary, directClassName);
+        if (directClass != null) {
             DependencyType relationshipType = determineFieldRelationshipType(field, fieldName, directClassName);
-            addFieldRelationship(fromClass, directClassName, relationshipType);
+            addFieldRelationship(fromClass, directClass, directClassName, relationshipType, sink);
         }
         
         // Handle generic types (List<Class>, Set<Class>, Map<Key, Value>, etc.)
-        analyzeGenericTypes(fieldType, fromClass, fieldName);
+        analyzeGenericTypes(summary, field, fromClass, fieldName, sink);
         
         // Handle array types (Class[], Class[][])
-        analyzeArrayTypes(fieldType, fromClass);
+        analyzeArrayTypes(summary, field, fromClass, sink);
     }
     
     /**
      * Analyzes generic types like List<Person>, Map<String, Order>
      */
-    private void analyzeGenericTypes(Type fieldType, ClassModel fromClass, String fieldName) {
-        if (fieldType.isClassOrInterfaceType()) {
-            ClassOrInterfaceType classType = fieldType.asClassOrInterfaceType();
-            
-            if (classType.getTypeArguments().isPresent()) {
-                classType.getTypeArguments().get().forEach(typeArg -> {
-                    String genericClassName = extractClassName(typeArg);
-                    if (availableClasses.contains(genericClassName)) {
-                        // Collections typically indicate aggregation
-                        addFieldRelationship(fromClass, genericClassName, DependencyType.AGGREGATION);
-                        System.out.println("  Found generic aggregation: " + fromClass.getClassName() + 
-                                         " o-- " + genericClassName + " (via " + fieldName + ")");
-                    }
-                });
+    private void analyzeGenericTypes(ClassSummary summary, ClassSummary.FieldReference field, ClassModel fromClass, String fieldName, RelationshipSink sink) {
+        for (String genericClassName : field.getTypeArguments()) {
+            ClassModel genericClass = resolve(summary, genericClassName);
+            if (genericClass != null) {
+                // Collections typically indicate aggregation
+                addFieldRelationship(fromClass, genericClass, genericClassName, DependencyType.AGGREGATION, sink);
+                sink.log(() -> "  Found generic aggregation: " + fromClass.getClassName() + 
+                                 " o-- " + genericClassName + " (via " + fieldName + ")");
             }
         }
     }
@@ -171,23 +486,21 @@ public class RelationshipAnalyzer {
     /**
      * Analyzes array types like Person[], Order[][]
      */
-    private void analyzeArrayTypes(Type fieldType, ClassModel fromClass) {
-        if (fieldType.isArrayType()) {
-            Type componentType = fieldType.asArrayType().getComponentType();
-            String arrayClassName = extractClassName(componentType);
-            if (availableClasses.contains(arrayClassName)) {
-                // Arrays typically indicate aggregation
-                addFieldRelationship(fromClass, arrayClassName, DependencyType.AGGREGATION);
-                System.out.println("  Found array aggregation: " + fromClass.getClassName() + 
-                                 " o-- " + arrayClassName + " (array)");
-            }
+    private void analyzeArrayTypes(ClassSummary summary, ClassSummary.FieldReference field, ClassModel fromClass, RelationshipSink sink) {
+        String arrayClassName = field.getArrayComponent();
+        ClassModel arrayClass = arrayClassName != null ? resolve(summary, arrayClassName) : null;
+        if (arrayClass != null) {
+            // Arrays typically indicate aggregation
+            addFieldRelationship(fromClass, arrayClass, arrayClassName, DependencyType.AGGREGATION, sink);
+            sink.log(() -> "  Found array aggregation: " + fromClass.getClassName() + 
+                             " o-- " + arrayClassName + " (array)");
         }
     }
     
     /**
      * Determines the type of field relationship based on various heuristics
      */
-    private DependencyType determineFieldRelationshipType(FieldDeclaration field, String fieldName, String targetClassName) {
+    private DependencyType determineFieldRelationshipType(ClassSummary.FieldReference field, String fieldName, String targetClassName) {
         String fieldNameLower = fieldName.toLowerCase();
         
         // Composition indicators (stronger ownership)
@@ -195,12 +508,12 @@ public class RelationshipAnalyzer {
             fieldNameLower.contains("part") || 
             fieldNameLower.contains("component") ||
             fieldNameLower.contains("detail") ||
-            (field.getModifiers().size() > 0 && field.isPrivate())) {
+            (field.hasModifiers() && field.isPrivate())) {
             return DependencyType.COMPOSITION;
         }
         
         // Aggregation indicators (weaker ownership, collections)
-        if (isCollectionType(field.getElementType()) ||
+        if (field.isCollection() ||
             fieldNameLower.contains("list") ||
             fieldNameLower.contains("set") ||
             fieldNameLower.contains("collection") ||
@@ -213,46 +526,28 @@ public class RelationshipAnalyzer {
         return DependencyType.ASSOCIATION;
     }
     
-    /**
-     * Checks if a type represents a collection (List, Set, Map, etc.)
-     */
-    private boolean isCollectionType(Type type) {
-        if (!type.isClassOrInterfaceType()) {
-            return false;
-        }
-        
-        String typeName = type.asClassOrInterfaceType().getNameAsString();
-        Set<String> collectionTypes = Set.of(
-            "List", "ArrayList", "LinkedList",
-            "Set", "HashSet", "TreeSet", "LinkedHashSet",
-            "Map", "HashMap", "TreeMap", "LinkedHashMap",
-            "Collection", "Queue", "Deque"
-        );
-        
-        return collectionTypes.contains(typeName);
-    }
-    
     /**
      * Analyzes method-based relationships (dependencies)
      */
-    private void analyzeMethodRelationships(ClassOrInterfaceDeclaration classDecl, ClassModel fromClass) {
-        for (MethodDeclaration method : classDecl.getMethods()) {
+    private void analyzeMethodRelationships(ClassSummary summary, ClassModel fromClass, RelationshipSink sink) {
+        for (ClassSummary.MethodReference method : summary.getMethods()) {
             // Analyze method parameters
-            for (Parameter param : method.getParameters()) {
-                String paramClassName = extractClassName(param.getType());
-                if (availableClasses.contains(paramClassName) && 
-                    !hasStrongerRelationship(fromClass, paramClassName)) {
+            for (String paramClassName : method.getParameterTypes()) {
+                ClassModel paramClass = resolve(summary, paramClassName);
+                if (paramClass != null && 
+                    !hasStrongerRelationship(fromClass, paramClass, sink)) {
                     
-                    addMethodRelationship(fromClass, paramClassName, "parameter in " + method.getNameAsString());
+                    addMethodRelationship(fromClass, paramClass, paramClassName, "parameter in " + method.getName(), sink);
                 }
             }
             
             // Analyze return type
-            String returnClassName = extractClassName(method.getType());
-            if (availableClasses.contains(returnClassName) && 
-                !hasStrongerRelationship(fromClass, returnClassName)) {
+            String returnClassName = method.getReturnType();
+            ClassModel returnClass = resolve(summary, returnClassName);
+            if (returnClass != null && 
+                !hasStrongerRelationship(fromClass, returnClass, sink)) {
                 
-                addMethodRelationship(fromClass, returnClassName, "return type of " + method.getNameAsString());
+                addMethodRelationship(fromClass, returnClass, returnClassName, "return type of " + method.getName(), sink);
             }
         }
     }
@@ -260,15 +555,15 @@ public class RelationshipAnalyzer {
     /**
      * NEW: Analyzes constructor-based relationships (dependencies)
      */
-    private void analyzeConstructorRelationships(ClassOrInterfaceDeclaration classDecl, ClassModel fromClass) {
-        for (ConstructorDeclaration constructor : classDecl.getConstructors()) {
+    private void analyzeConstructorRelationships(ClassSummary summary, ClassModel fromClass, RelationshipSink sink) {
+        for (List<String> parameterTypes : summary.getConstructors()) {
             // Analyze constructor parameters
-            for (Parameter param : constructor.getParameters()) {
-                String paramClassName = extractClassName(param.getType());
-                if (availableClasses.contains(paramClassName) && 
-                    !hasStrongerRelationship(fromClass, paramClassName)) {
+            for (String paramClassName : parameterTypes) {
+                ClassModel paramClass = resolve(summary, paramClassName);
+                if (paramClass != null && 
+                    !hasStrongerRelationship(fromClass, paramClass, sink)) {
                     
-                    addMethodRelationship(fromClass, paramClassName, "constructor parameter");
+                    addMethodRelationship(fromClass, paramClass, paramClassName, "constructor parameter", sink);
                 }
             }
         }
@@ -277,12 +572,10 @@ public class RelationshipAnalyzer {
     /**
      * Adds a field-based relationship if it doesn't already exist
      */
-    private void addFieldRelationship(ClassModel fromClass, String toClassName, DependencyType relationshipType) {
-        ClassModel toClass = classModelMap.get(toClassName);
-        if (toClass != null && !relationshipExists(fromClass, toClass, relationshipType)) {
+    private void addFieldRelationship(ClassModel fromClass, ClassModel toClass, String toClassName, DependencyType relationshipType, RelationshipSink sink) {
+        if (!sink.exists(fromClass, toClass, relationshipType)) {
             DependencyModel dependency = new DependencyModel(fromClass, toClass, relationshipType);
-            umlModel.addRelationshipToDiagram(dependency);
-            System.out.println("  Found " + relationshipType.name().toLowerCase() + ": " + 
+            sink.add(dependency, () -> "  Found " + relationshipType.name().toLowerCase() + ": " + 
                              fromClass.getClassName() + " " + relationshipType.getArrow() + " " + toClassName);
         }
     }
@@ -290,12 +583,10 @@ public class RelationshipAnalyzer {
     /**
      * Adds a method-based dependency relationship
      */
-    private void addMethodRelationship(ClassModel fromClass, String toClassName, String context) {
-        ClassModel toClass = classModelMap.get(toClassName);
-        if (toClass != null && !relationshipExists(fromClass, toClass, DependencyType.DEPENDENCY)) {
+    private void addMethodRelationship(ClassModel fromClass, ClassModel toClass, String toClassName, String context, RelationshipSink sink) {
+        if (!sink.exists(fromClass, toClass, DependencyType.DEPENDENCY)) {
             DependencyModel dependency = new DependencyModel(fromClass, toClass, DependencyType.DEPENDENCY);
-            umlModel.addRelationshipToDiagram(dependency);
-            System.out.println("  Found dependency: " + fromClass.getClassName() + " ..> " + toClassName + 
+            sink.add(dependency, () -> "  Found dependency: " + fromClass.getClassName() + " ..> " + toClassName + 
                              " (" + context + ")");
         }
     }
@@ -304,61 +595,116 @@ public class RelationshipAnalyzer {
      * Checks if a stronger relationship already exists between two classes
      * Hierarchy: Inheritance > Realization > Composition > Aggregation > Association > Dependency
      */
-    private boolean hasStrongerRelationship(ClassModel fromClass, String toClassName) {
-        ClassModel toClass = classModelMap.get(toClassName);
-        if (toClass == null) return false;
+    private boolean hasStrongerRelationship(ClassModel fromClass, ClassModel toClass, RelationshipSink sink) {
+        return sink.hasStrongerThan(fromClass, toClass, DependencyType.DEPENDENCY);
+    }
+    
+    /**
+     * Gets relationship statistics for debugging/reporting
+     */
+    public void printRelationshipSummary() {
+        Map<DependencyType, Integer> counts = new HashMap<>();
+        List<DependencyModel> relationships = umlModel.getRelationships();
         
-        // Check if any stronger relationship already exists
-        return relationshipExists(fromClass, toClass, DependencyType.INHERITANCE) ||
-               relationshipExists(fromClass, toClass, DependencyType.REALIZATION) ||
-               relationshipExists(fromClass, toClass, DependencyType.COMPOSITION) ||
-               relationshipExists(fromClass, toClass, DependencyType.AGGREGATION) ||
-               relationshipExists(fromClass, toClass, DependencyType.ASSOCIATION);
+        for (DependencyModel rel : relationships) {
+            counts.merge(rel.getType(), 1, Integer::sum);
+        }
+        
+        Log.info("\n=== Relationship Analysis Summary ===");
+        Log.info("Total relationships found: " + relationships.size());
+        for (Map.Entry<DependencyType, Integer> entry : counts.entrySet()) {
+            Log.info(entry.getKey() + ": " + entry.getValue());
+        }
+        
+        Log.info("\n=== All Relationships ===");
+        for (DependencyModel rel : relationships) {
+            Log.info(rel.toString());
+        }
     }
     
     /**
-     * Checks if a specific relationship already exists between two classes
+     * Where the analysis records relationships and looks up existing ones
      */
-    private boolean relationshipExists(ClassModel fromClass, ClassModel toClass, DependencyType type) {
-        return umlModel.getRelationships().stream()
-            .anyMatch(rel -> rel.getFromClass().equals(fromClass) && 
-                           rel.getToClass().equals(toClass) && 
-                           rel.getType() == type);
+    private interface RelationshipSink {
+        boolean exists(ClassModel fromClass, ClassModel toClass, DependencyType type);
+        
+        boolean hasStrongerThan(ClassModel fromClass, ClassModel toClass, DependencyType type);
+        
+        // messages are only built when debug logging is on
+        void add(DependencyModel dependency, Supplier<String> message);
+        
+        void log(Supplier<String> message);
     }
     
     /**
-     * Extracts the simple class name from a Type, handling generics and arrays
+     * Writes straight into the UML model, used by the serial analysis
      */
-    private String extractClassName(Type type) {
-        if (type.isClassOrInterfaceType()) {
-            return type.asClassOrInterfaceType().getNameAsString();
-        } else if (type.isArrayType()) {
-            return extractClassName(type.asArrayType().getComponentType());
-        } else if (type.isPrimitiveType()) {
-            return type.asPrimitiveType().getType().asString();
+    private class ModelSink implements RelationshipSink {
+        // where the relationships of the summary being analyzed are recorded
+        private List<DependencyModel> current;
+        
+        void startSummary(ClassSummary summary) {
+            current = new ArrayList<>();
+            relationshipsBySummary.put(summary, current);
+        }
+        
+        public boolean exists(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+            return umlModel.hasRelationship(fromClass, toClass, type);
+        }
+        
+        public boolean hasStrongerThan(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+            return umlModel.hasRelationshipStrongerThan(fromClass, toClass, type);
+        }
+        
+        public void add(DependencyModel dependency, Supplier<String> message) {
+            if (umlModel.addRelationshipToDiagram(dependency)) {
+                current.add(dependency);
+            }
+            Log.debug(message);
+        }
+        
+        public void log(Supplier<String> message) {
+            Log.debug(message);
         }
-        return type.toString();
     }
     
     /**
-     * Gets relationship statistics for debugging/reporting
+     * Collects the relationships of one group of same-named classes on a worker
+     * thread. Checks see the group's own edges plus whatever the model already held.
      */
-    public void printRelationshipSummary() {
-        Map<DependencyType, Integer> counts = new HashMap<>();
+    private class LocalSink implements RelationshipSink {
+        private final RelationshipIndex index = new RelationshipIndex();
+        private ClassRelationships current;
         
-        for (DependencyModel rel : umlModel.getRelationships()) {
-            counts.merge(rel.getType(), 1, Integer::sum);
+        public boolean exists(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+            return index.contains(fromClass.getQualifiedName(), toClass.getQualifiedName(), type)
+                    || umlModel.hasRelationship(fromClass, toClass, type);
         }
         
-        System.out.println("\n=== Relationship Analysis Summary ===");
-        System.out.println("Total relationships found: " + umlModel.getRelationships().size());
-        for (Map.Entry<DependencyType, Integer> entry : counts.entrySet()) {
-            System.out.println(entry.getKey() + ": " + entry.getValue());
+        public boolean hasStrongerThan(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+            return index.hasStrongerThan(fromClass.getQualifiedName(), toClass.getQualifiedName(), type)
+                    || umlModel.hasRelationshipStrongerThan(fromClass, toClass, type);
+        }
+        
+        public void add(DependencyModel dependency, Supplier<String> message) {
+            index.add(dependency);
+            current.relationships.add(dependency);
+            log(message);
         }
         
-        System.out.println("\n=== All Relationships ===");
-        for (DependencyModel rel : umlModel.getRelationships()) {
-            System.out.println(rel.toString());
+        public void log(Supplier<String> message) {
+            if (Log.isDebugEnabled()) {
+                current.log.append(System.lineSeparator()).append(message.get());
+            }
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Relationships and log lines produced for one class by the parallel analysis;
+     * each log line starts with a line separator
+     */
+    private static class ClassRelationships {
+        private final List<DependencyModel> relationships = new ArrayList<>();
+        private final StringBuilder log = new StringBuilder();
+    }
+}
@@ -54,7 +54,7 @@ public class RelationshipAnalyzerTest {
         // Phase 2: Analyze relationships
         System.out.println("Phase 2: Analyzing relationships...");
         RelationshipAnalyzer analyzer = new RelationshipAnalyzer(umlModel);
-        analyzer.analyzeAllRelationships(parser.getAllClassDeclarations());
+        analyzer.analyzeAllRelationships(parser.getAllClassSummaries());
         
         // Phase 3: Print results
         System.out.println("\nPhase 3: Results");
@@ -0,0 +1,152 @@
+package controller;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads UTF-8 source files into a char buffer that is reused from file to file.
+ *
+ * Small files are read through a reusable byte buffer and large ones are
+ * memory-mapped. Pure ASCII content, the common case for Java sources, is
+ * widened to chars directly without going through a CharsetDecoder.
+ * Not thread-safe: every parser thread owns its own loader, and a loaded
+ * Source is only valid until the next call to load.
+ */
+public class SourceLoader {
+
+    // files at least this large are memory-mapped instead of copied
+    private static final int MAP_THRESHOLD = 1 << 20;
+    // buffers that grew past this are dropped before loading a smaller file
+    private static final int RETAINED_CAPACITY = 1 << 20;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private char[] chars = new char[INITIAL_CAPACITY];
+
+    public Source load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer content;
+            if (size >= MAP_THRESHOLD) {
+                content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                content = readFully(channel, (int) size);
+            }
+            int length = decode(content);
+            return new Source(content.asReadOnlyBuffer(), chars, length);
+        }
+    }
+
+    private ByteBuffer readFully(FileChannel channel, int expectedSize) throws IOException {
+        if (bytes.capacity() < expectedSize + 1 || bytes.capacity() > Math.max(RETAINED_CAPACITY, expectedSize * 2)) {
+            // one spare byte lets the loop below notice EOF without another allocation
+            bytes = ByteBuffer.allocate(Math.max(INITIAL_CAPACITY, expectedSize + 1));
+        }
+        bytes.clear();
+        // the file may have grown since its size was read
+        while (channel.read(bytes) >= 0) {
+            if (!bytes.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+                bytes.flip();
+                larger.put(bytes);
+                bytes = larger;
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Decodes content into the char buffer and returns the number of chars
+     */
+    private int decode(ByteBuffer content) {
+        int size = content.remaining();
+        // UTF-8 never needs more chars than bytes
+        if (chars.length < size || chars.length > Math.max(RETAINED_CAPACITY, size * 2)) {
+            chars = new char[Math.max(INITIAL_CAPACITY, size)];
+        }
+
+        if (content.hasArray() && isAscii(content.array(), content.arrayOffset() + content.position(), size)) {
+            byte[] array = content.array();
+            int offset = content.arrayOffset() + content.position();
+            for (int i = 0; i < size; i++) {
+                chars[i] = (char) array[offset + i];
+            }
+            return size;
+        }
+
+        CharBuffer out = CharBuffer.wrap(chars);
+        decoder.reset();
+        ByteBuffer in = content.duplicate();
+        CoderResult result = decoder.decode(in, out, true);
+        if (result.isOverflow()) {
+            // cannot happen for UTF-8, see above
+            throw new IllegalStateException("Decoded source larger than its bytes");
+        }
+        decoder.flush(out);
+        return out.position();
+    }
+
+    private static boolean isAscii(byte[] array, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (array[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Raw bytes and decoded text of one file, backed by the loader's buffers
+     */
+    public static class Source {
+        private final ByteBuffer bytes;
+        private final char[] chars;
+        private final int length;
+
+        Source(ByteBuffer bytes, char[] chars, int length) {
+            this.bytes = bytes;
+            this.chars = chars;
+            this.length = length;
+        }
+
+        /**
+         * The file content; a fresh read-only view on every call
+         */
+        public ByteBuffer bytes() {
+            return bytes.duplicate();
+        }
+
+        /**
+         * The decoded text; only the first length() chars are valid
+         */
+        public char[] chars() {
+            return chars;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public Reader reader() {
+            return new CharArrayReader(chars, 0, length);
+        }
+
+        public String text() {
+            return new String(chars, 0, length);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package controller;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import model.ClassSummary;
+import model.TypeScope;
+
+/**
+ * Index of the classes in the diagram by qualified name, resolving type names
+ * as written in a class the way the Java scoping rules that matter for
+ * declarations do: member types of the class and its enclosing classes
+ * first, then single-type imports, then the class's own package, then
+ * on-demand imports. Every step is a hash lookup.
+ *
+ * Member types inherited from a superclass would need a symbol solver, so a
+ * name that no rule resolves falls back to the one class carrying that
+ * simple name, if there is exactly one. Ambiguous names stay unresolved.
+ * Not thread-safe for updates; lookups may run concurrently.
+ */
+public class TypeResolver {
+
+    private final Set<String> qualifiedNames = new HashSet<>();
+    // simple name -> qualified names of the classes carrying it
+    private final Map<String, Set<String>> bySimpleName = new HashMap<>();
+
+    public void add(String qualifiedName) {
+        if (qualifiedNames.add(qualifiedName)) {
+            bySimpleName.computeIfAbsent(simpleName(qualifiedName), k -> new HashSet<>()).add(qualifiedName);
+        }
+    }
+
+    public void remove(String qualifiedName) {
+        if (qualifiedNames.remove(qualifiedName)) {
+            Set<String> sameName = bySimpleName.get(simpleName(qualifiedName));
+            sameName.remove(qualifiedName);
+            if (sameName.isEmpty()) {
+                bySimpleName.remove(simpleName(qualifiedName));
+            }
+        }
+    }
+
+    public boolean contains(String qualifiedName) {
+        return qualifiedNames.contains(qualifiedName);
+    }
+
+    /**
+     * Returns the qualified name typeName refers to from inside the given class,
+     * or null if it names no known class
+     */
+    public String resolve(ClassSummary from, String typeName) {
+        Match match = match(from, typeName);
+        return match != null ? match.qualifiedName : null;
+    }
+
+    /**
+     * Whether resolving typeName from the given class gives the same answer no
+     * matter which classes become known later. False for unresolved names and
+     * for names found through an on-demand import or the unique-name fallback,
+     * which a class added later could shadow.
+     */
+    public boolean isSettled(ClassSummary from, String typeName) {
+        Match match = match(from, typeName);
+        return match != null && match.settled;
+    }
+
+    /**
+     * The simple name at the end of a possibly qualified type name
+     */
+    public static String simpleName(String typeName) {
+        return typeName.substring(typeName.lastIndexOf('.') + 1);
+    }
+
+    private Match match(ClassSummary from, String typeName) {
+        int dot = typeName.indexOf('.');
+        if (dot >= 0) {
+            // Either fully qualified or Outer.Inner with Outer in scope
+            if (qualifiedNames.contains(typeName)) {
+                return new Match(typeName, true);
+            }
+            Match outer = match(from, typeName.substring(0, dot));
+            if (outer != null) {
+                String qualifiedName = outer.qualifiedName + typeName.substring(dot);
+                if (qualifiedNames.contains(qualifiedName)) {
+                    return new Match(qualifiedName, outer.settled);
+                }
+            }
+            return null;
+        }
+
+        TypeScope scope = from.getScope();
+        String packageName = scope != null ? scope.getPackageName() : "";
+
+        // Member types of the class and of every enclosing class, all declared in the same file
+        for (String enclosing = from.getQualifiedName(); enclosing.length() > packageName.length();
+                enclosing = enclosing.substring(0, Math.max(0, enclosing.lastIndexOf('.')))) {
+            String candidate = enclosing + "." + typeName;
+            if (qualifiedNames.contains(candidate)) {
+                return new Match(candidate, true);
+            }
+        }
+
+        if (scope != null) {
+            String imported = scope.getSingleTypeImport(typeName);
+            if (imported != null) {
+                // An import of a class outside the diagram still hides same-named classes
+                return qualifiedNames.contains(imported) ? new Match(imported, true) : null;
+            }
+
+            String samePackage = scope.qualify(typeName);
+            if (qualifiedNames.contains(samePackage)) {
+                return new Match(samePackage, true);
+            }
+
+            for (String onDemand : scope.getOnDemandImports()) {
+                String candidate = onDemand + "." + typeName;
+                if (qualifiedNames.contains(candidate)) {
+                    return new Match(candidate, false);
+                }
+            }
+        } else if (qualifiedNames.contains(typeName)) {
+            return new Match(typeName, true);
+        }
+
+        Set<String> sameName = bySimpleName.get(typeName);
+        if (sameName != null && sameName.size() == 1) {
+            return new Match(sameName.iterator().next(), false);
+        }
+        return null;
+    }
+
+    private static final class Match {
+        private final String qualifiedName;
+        private final boolean settled;
+
+        Match(String qualifiedName, boolean settled) {
+            this.qualifiedName = qualifiedName;
+            this.settled = settled;
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package controller;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import model.UMLModel;
+import model.UMLSnapshot;
+import view.DiagramSharder;
 import view.PlantUMLEncoder;
 import view.PlantUMLGenerator;
 
@@ -21,98 +29,360 @@ public class UMLGeneratorCLI {
         }
         
         try {
+            if (args[0].equals("--daemon")) {
+                new UMLGeneratorDaemon().run();
+                return;
+            }
+            
             UMLGeneratorConfig config = parseArguments(args);
+            Log.setLevel(config.logLevel);
             UMLGeneratorCLI cli = new UMLGeneratorCLI();
-            cli.generateUML(config);
+            if (config.batchManifest != null) {
+                int failed = new BatchRunner(cli, config).run();
+                if (failed > 0) {
+                    System.exit(1);
+                }
+            } else if (config.diffOld != null) {
+                new DiffRunner(cli, config).run();
+            } else if (config.watch) {
+                new DiagramWatcher(cli, config).run();
+            } else {
+                cli.generateUML(config);
+            }
         } catch (Exception e) {
+            Log.flush();
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
             System.exit(1);
         }
     }
     
-    public void generateUML(UMLGeneratorConfig config) throws Exception {
-        System.out.println("🚀 Starting UML Generation...");
-        System.out.println("Input: " + config.inputPath);
-        System.out.println("Output: " + config.outputPath);
-        System.out.println("Include relationships: " + config.includeRelationships);
-        System.out.println();
-        
-        // Find all Java files
-        List<Path> javaFiles = findJavaFiles(config.inputPath);
-        System.out.println("📁 Found " + javaFiles.size() + " Java files");
+    /**
+     * Runs the full pipeline for one input and returns the PlantUML server URL
+     */
+    public String generateUML(UMLGeneratorConfig config) throws Exception {
+        Log.info("🚀 Starting UML Generation...");
+        Log.info("Input: " + (config.importModel != null ? config.importModel : config.inputPath));
+        Log.info("Output: " + config.outputPath);
+        Log.info("Include relationships: " + config.includeRelationships);
+        Log.info("Worker threads: " + config.threads);
+        Log.info("");
         
-        // Phase 1: Parse all files
-        System.out.println("📝 Phase 1: Parsing Java files...");
-        JavaFileParser parser = new JavaFileParser();
-        
-        for (Path file : javaFiles) {
-            System.out.println("  Parsing: " + file.getFileName());
-            parser.parseFile(file);
+        try (GenerationMetrics metrics = config.writeMetrics ? new GenerationMetrics() : GenerationMetrics.disabled()) {
+            return generateUML(config, metrics);
         }
-        
+    }
+    
+    private String generateUML(UMLGeneratorConfig config, GenerationMetrics metrics) throws Exception {
+        ParseCache cache = config.sharedCache;
+        if (cache == null && config.useCache) {
+            cache = new ParseCache(resolveCacheDir(config));
+        }
+        JavaFileParser parser = new JavaFileParser(cache, config.signaturesOnly);
         UMLModel umlModel = parser.getUmlModel();
-        System.out.println("✅ Parsed " + umlModel.getClasses().size() + " classes");
-        
-        // Phase 2: Analyze relationships (if enabled)
-        if (config.includeRelationships) {
-            System.out.println("🔗 Phase 2: Analyzing relationships...");
-            RelationshipAnalyzer analyzer = new RelationshipAnalyzer(umlModel);
-            analyzer.analyzeAllRelationships(parser.getAllClassDeclarations());
-            System.out.println("✅ Found " + umlModel.getRelationships().size() + " relationships");
+        RelationshipAnalyzer analyzer = null;
+        int fileCount;
+        
+        if (config.importModel != null) {
+            // Phases 1 and 2 were done by the run that exported the model
+            Log.info("📂 Phase 1+2: Loading model snapshot...");
+            metrics.startPhase("load");
+            // a snapshot exported over itself must not stay mapped, or Windows refuses to replace it
+            boolean overwritten = config.exportModel != null && Files.exists(config.exportModel)
+                    && Files.isSameFile(config.importModel, config.exportModel);
+            umlModel = UMLSnapshotFile.read(config.importModel, !overwritten);
+            fileCount = 0;
+            Log.info("✅ Loaded " + umlModel.getClassCount() + " classes and "
+                    + umlModel.getRelationshipCount() + " relationships");
+        } else if (config.pipeline) {
+            // Phases 1 and 2 overlap: files are analyzed while others are still being found and parsed
+            Log.info("📝 Phase 1+2: Finding, parsing and analyzing Java files in a pipeline...");
+            metrics.startPhase("pipeline");
+            ParsePipeline pipeline = new ParsePipeline(config.threads, cache);
+            analyzer = pipeline.run(config.inputPath, parser, config.includeRelationships, metrics);
+            fileCount = pipeline.getFileCount();
+            Log.info("📁 Found " + fileCount + " Java files");
+            Log.info("✅ Parsed " + umlModel.getClassCount() + " classes");
+            // a shared cache counts for every run using it; its owner reports the totals
+            if (cache != null && config.sharedCache == null) {
+                Log.info("🗃️  Cache: " + cache.getHits() + " reused, " + cache.getMisses() + " parsed");
+            }
+            if (analyzer != null) {
+                Log.info("✅ Found " + umlModel.getRelationshipCount() + " relationships");
+            }
+        } else {
+            // Find all Java files
+            metrics.startPhase("discover");
+            List<Path> javaFiles = findJavaFiles(config.inputPath);
+            fileCount = javaFiles.size();
+            Log.info("📁 Found " + fileCount + " Java files");
+            
+            // Phase 1: Parse all files
+            Log.info("📝 Phase 1: Parsing Java files...");
+            metrics.startPhase("parse");
+            if (config.virtualThreads) {
+                // One virtual thread per file; --threads only caps concurrent parsing
+                int parseThreads = config.threads > 1 ? config.threads : Runtime.getRuntime().availableProcessors();
+                new ParallelFileParser(parseThreads, cache, true).parseAll(javaFiles, parser, metrics);
+            } else if (config.threads > 1) {
+                new ParallelFileParser(config.threads, cache).parseAll(javaFiles, parser, metrics);
+            } else {
+                for (Path file : javaFiles) {
+                    Log.debug(() -> "  Parsing: " + file.getFileName());
+                    long start = System.nanoTime();
+                    parser.parseFile(file);
+                    metrics.recordFile(file, System.nanoTime() - start);
+                }
+            }
+            
+            Log.info("✅ Parsed " + umlModel.getClassCount() + " classes");
+            // a shared cache counts for every run using it; its owner reports the totals
+            if (cache != null && config.sharedCache == null) {
+                Log.info("🗃️  Cache: " + cache.getHits() + " reused, " + cache.getMisses() + " parsed");
+            }
             
-            if (config.verbose) {
-                analyzer.printRelationshipSummary();
+            // Phase 2: Analyze relationships (if enabled)
+            if (config.includeRelationships) {
+                Log.info("🔗 Phase 2: Analyzing relationships...");
+                metrics.startPhase("analyze");
+                analyzer = new RelationshipAnalyzer(umlModel);
+                analyzer.analyzeAllRelationships(parser.getAllClassSummaries(), config.threads);
+                Log.info("✅ Found " + umlModel.getRelationshipCount() + " relationships");
             }
         }
         
-        // Phase 3: Generate PlantUML
-        System.out.println("🎨 Phase 3: Generating PlantUML...");
-        PlantUMLGenerator generator = new PlantUMLGenerator();
-        String plantUML = generator.generatePlantUML(umlModel);
+        if (analyzer != null && config.verbose) {
+            analyzer.printRelationshipSummary();
+        }
         
-        // Phase 4: Encode PlantUML content
-        System.out.println("🔐 Phase 4: Encoding PlantUML...");
-        String encodedUML = PlantUMLEncoder.encode(plantUML);
-        String plantUMLUrl = "http://www.plantuml.com/plantuml/uml/" + encodedUML;
+        if (config.exportModel != null) {
+            Log.info("📦 Exporting model snapshot...");
+            metrics.startPhase("export");
+            UMLSnapshotFile.write(umlModel.freeze(), config.exportModel);
+            Log.info("📦 Model saved to: " + config.exportModel);
+        }
         
-        // Phase 5: Save output with metadata
-        System.out.println("💾 Phase 5: Saving output with metadata...");
-        String outputContent = createOutputWithMetadata(plantUML, encodedUML, plantUMLUrl);
-        Files.writeString(config.outputPath, outputContent);
+        String plantUMLUrl = writeDiagram(config, umlModel, metrics);
         
-        System.out.println("🎉 UML generation complete!");
-        System.out.println("📄 Output saved to: " + config.outputPath);
-        System.out.println("🌐 Open at: " + plantUMLUrl);
+        if (config.writeMetrics) {
+            metrics.setCounter("input", String.valueOf(config.importModel != null ? config.importModel : config.inputPath));
+            metrics.setCounter("output", config.outputPath.toString());
+            metrics.setCounter("threads", config.threads);
+            metrics.setCounter("files", fileCount);
+            metrics.setCounter("classes", umlModel.getClassCount());
+            metrics.setCounter("relationships", umlModel.getRelationshipCount());
+            if (cache != null && config.sharedCache == null) {
+                metrics.setCounter("cacheHits", cache.getHits());
+                metrics.setCounter("cacheMisses", cache.getMisses());
+            }
+            Path reportPath = metrics.writeReport(config.outputPath, config.slowestFiles);
+            Log.info("📊 Metrics saved to: " + reportPath);
+        }
+        
+        Log.info("🎉 UML generation complete!");
+        Log.info("📄 Output saved to: " + config.outputPath);
+        if (plantUMLUrl != null) {
+            Log.info("🌐 Open at: " + plantUMLUrl);
+        }
         
         // Print preview if requested
         if (config.showPreview) {
+            // Printed directly so it comes out whole, after everything logged so far
+            Log.flush();
             System.out.println("\n=== PlantUML Preview ===");
-            System.out.println(plantUML);
+            System.out.println(new PlantUMLGenerator().generatePlantUML(umlModel));
             System.out.println("========================");
             System.out.println("\n=== Encoded URL ===");
-            System.out.println(plantUMLUrl);
+            System.out.println(plantUMLUrl != null ? plantUMLUrl : "(omitted)");
             System.out.println("==================");
         }
+        
+        return plantUMLUrl;
     }
     
-    private String createOutputWithMetadata(String plantUML, String encodedUML, String plantUMLUrl) {
-        StringBuilder output = new StringBuilder();
+    /**
+     * Runs Phases 3 to 5 for an already analyzed model and returns the PlantUML
+     * server URL, or null if encoding was skipped
+     */
+    String writeDiagram(UMLGeneratorConfig config, UMLModel umlModel, GenerationMetrics metrics) throws IOException {
+        if (config.shardMode != null) {
+            return writeShards(config, umlModel, metrics);
+        }
         
-        // Add metadata as comments at the top
-        output.append("' Generated by UML Generator\n");
-        output.append("' Encoded: ").append(encodedUML).append("\n");
-        output.append("' URL: ").append(plantUMLUrl).append("\n");
-        output.append("' Generated on: ").append(java.time.LocalDateTime.now()).append("\n");
-        output.append("\n");
+        // Both passes below read the same frozen, indexed view of the model
+        UMLSnapshot snapshot = umlModel.freeze();
+        PlantUMLGenerator generator = new PlantUMLGenerator();
+        String encodedUML = null;
+        if (config.encodeUrl) {
+            // Phase 3: Generate PlantUML, streamed straight into the encoder
+            Log.info("🎨 Phase 3: Generating PlantUML...");
+            metrics.startPhase("generate");
+            PlantUMLEncoder.EncodingWriter encoder = PlantUMLEncoder.newEncodingWriter(encodeLimitChars(config));
+            try {
+                generator.generatePlantUML(snapshot, encoder);
+                
+                // Phase 4: Encode PlantUML content, finished by closing the writer
+                Log.info("🔐 Phase 4: Encoding PlantUML...");
+                metrics.startPhase("encode");
+            } finally {
+                // also on failure, so the thread's encoding workspace is handed back
+                encoder.close();
+            }
+            encodedUML = encoder.getEncoded();
+            if (encodedUML == null) {
+                Log.info("⏭️  Diagram has " + encoder.getWrittenChars() / 1024 + " KB, over the "
+                        + config.encodeLimitKb + " KB encoding limit; no PlantUML URL");
+            }
+        } else {
+            Log.info("⏭️  Phase 3-4: PlantUML encoding disabled");
+        }
         
-        // Add the actual PlantUML content
-        output.append(plantUML);
+        // Phase 5: Save output with metadata, generating the diagram a second time
+        // directly into the file so it never exists in memory as a whole
+        Log.info("💾 Phase 5: Saving output with metadata...");
+        metrics.startPhase("save");
+        try (Writer output = Files.newBufferedWriter(config.outputPath, StandardCharsets.UTF_8)) {
+            writeMetadataHeader(output, encodedUML, config);
+            generator.generatePlantUML(snapshot, output);
+        }
+        metrics.endPhase();
         
-        return output.toString();
+        return plantUMLUrl(encodedUML);
     }
     
-    private List<Path> findJavaFiles(Path inputPath) throws IOException {
+    /**
+     * Splits the model into shards, writes them concurrently next to the output
+     * file and writes an index diagram linking them to the output file itself.
+     * Returns the PlantUML server URL of the index.
+     */
+    private String writeShards(UMLGeneratorConfig config, UMLModel umlModel, GenerationMetrics metrics)
+            throws IOException {
+        Log.info("🧩 Phase 3-5: Writing diagram shards by " + config.shardMode.name().toLowerCase() + "...");
+        metrics.startPhase("shards");
+        List<DiagramSharder.Shard> shards = new DiagramSharder(config.shardMode, config.shardSize).split(umlModel);
+        
+        Path outputPath = config.outputPath.toAbsolutePath();
+        String baseName = outputPath.getFileName().toString();
+        if (baseName.endsWith(".puml")) {
+            baseName = baseName.substring(0, baseName.length() - 5);
+        }
+        List<String> fileNames = new ArrayList<>();
+        for (DiagramSharder.Shard shard : shards) {
+            fileNames.add(baseName + "." + shard.getName().replaceAll("[^A-Za-z0-9._-]", "_") + ".puml");
+        }
+        
+        // Shards are independent, so generating and encoding them runs in parallel
+        int threads = config.threads > 1 ? config.threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, shards.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                UMLModel shardModel = shards.get(i).getModel();
+                Path shardPath = outputPath.resolveSibling(fileNames.get(i));
+                futures.add(executor.submit(() -> writePlantUML(config, shardModel, shardPath)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).get();
+                Log.info("  Wrote: " + fileNames.get(i) + " (" + shards.get(i).getModel().getClassCount() + " classes)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing shards", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Could not write shard", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        StringBuilder index = new StringBuilder();
+        new PlantUMLGenerator().generateShardIndex(shards, fileNames, index);
+        String indexUrl = writeDocument(config, index.toString());
+        metrics.endPhase();
+        Log.info("🗂️  Wrote " + shards.size() + " shards, index: " + config.outputPath);
+        
+        return indexUrl;
+    }
+    
+    /**
+     * Saves a small, already generated diagram to the output file with the
+     * usual header; returns its PlantUML server URL, or null if encoding was skipped
+     */
+    String writeDocument(UMLGeneratorConfig config, String plantUML) throws IOException {
+        String encodedUML = null;
+        if (config.encodeUrl && plantUML.length() <= encodeLimitChars(config)) {
+            encodedUML = PlantUMLEncoder.encode(plantUML);
+        }
+        try (Writer output = Files.newBufferedWriter(config.outputPath, StandardCharsets.UTF_8)) {
+            writeMetadataHeader(output, encodedUML, config);
+            output.write(plantUML);
+        }
+        return plantUMLUrl(encodedUML);
+    }
+    
+    /**
+     * Generates, encodes and saves one complete diagram; returns its PlantUML
+     * server URL, or null if encoding was skipped
+     */
+    private String writePlantUML(UMLGeneratorConfig config, UMLModel umlModel, Path outputPath) throws IOException {
+        UMLSnapshot snapshot = umlModel.freeze();
+        PlantUMLGenerator generator = new PlantUMLGenerator();
+        String encodedUML = null;
+        if (config.encodeUrl) {
+            PlantUMLEncoder.EncodingWriter encoder = PlantUMLEncoder.newEncodingWriter(encodeLimitChars(config));
+            try {
+                generator.generatePlantUML(snapshot, encoder);
+            } finally {
+                encoder.close();
+            }
+            encodedUML = encoder.getEncoded();
+        }
+        try (Writer output = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            writeMetadataHeader(output, encodedUML, config);
+            generator.generatePlantUML(snapshot, output);
+        }
+        return plantUMLUrl(encodedUML);
+    }
+    
+    private static long encodeLimitChars(UMLGeneratorConfig config) {
+        return config.encodeLimitKb * 1024L;
+    }
+    
+    private static String plantUMLUrl(String encodedUML) {
+        return encodedUML != null ? "http://www.plantuml.com/plantuml/uml/" + encodedUML : null;
+    }
+    
+    /**
+     * Writes the comment header; without an encoded diagram the Encoded and
+     * URL lines are replaced by one line saying why they are missing
+     */
+    private void writeMetadataHeader(Writer output, String encodedUML, UMLGeneratorConfig config) throws IOException {
+        // Add metadata as comments at the top
+        output.write("' Generated by UML Generator\n");
+        if (encodedUML != null) {
+            output.write("' Encoded: " + encodedUML + "\n");
+            output.write("' URL: " + plantUMLUrl(encodedUML) + "\n");
+        } else if (config.encodeUrl) {
+            output.write("' URL omitted: diagram exceeds the " + config.encodeLimitKb + " KB encoding limit\n");
+        } else {
+            output.write("' URL omitted: encoding disabled\n");
+        }
+        output.write("' Generated on: " + java.time.LocalDateTime.now() + "\n");
+        output.write("\n");
+    }
+    
+    Path resolveCacheDir(UMLGeneratorConfig config) {
+        if (config.cacheDir != null) {
+            return config.cacheDir;
+        }
+        Path outputDir = config.outputPath.toAbsolutePath().getParent();
+        return outputDir.resolve(ParseCache.DEFAULT_DIRECTORY);
+    }
+    
+    List<Path> findJavaFiles(Path inputPath) throws IOException {
         List<Path> javaFiles = new ArrayList<>();
         
         // Check if path exists first
@@ -166,10 +436,133 @@ public class UMLGeneratorCLI {
                     config.verbose = true;
                     break;
                     
+                case "-q", "--quiet":
+                    config.logLevel = Log.Level.QUIET;
+                    break;
+                    
+                case "--log-level":
+                    if (i + 1 < args.length) {
+                        config.logLevel = Log.Level.fromString(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing log level");
+                    }
+                    break;
+                    
                 case "-p", "--preview":
                     config.showPreview = true;
                     break;
                     
+                case "-t", "--threads":
+                    if (i + 1 < args.length) {
+                        config.threads = parseCount(args[++i], "thread count");
+                    } else {
+                        throw new IllegalArgumentException("Missing thread count");
+                    }
+                    break;
+                    
+                case "--cache":
+                    config.useCache = true;
+                    break;
+                    
+                case "--virtual-threads":
+                    config.virtualThreads = true;
+                    break;
+                    
+                case "--pipeline":
+                    config.pipeline = true;
+                    break;
+                    
+                case "--signatures-only":
+                    config.signaturesOnly = true;
+                    break;
+                    
+                case "--cache-dir":
+                    if (i + 1 < args.length) {
+                        config.useCache = true;
+                        config.cacheDir = Paths.get(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing cache directory");
+                    }
+                    break;
+                    
+                case "--shard":
+                    if (i + 1 < args.length) {
+                        config.shardMode = DiagramSharder.Mode.fromString(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing shard mode");
+                    }
+                    break;
+                    
+                case "--shard-size":
+                    if (i + 1 < args.length) {
+                        config.shardSize = parseCount(args[++i], "shard size");
+                    } else {
+                        throw new IllegalArgumentException("Missing shard size");
+                    }
+                    break;
+                    
+                case "--watch":
+                    config.watch = true;
+                    break;
+                    
+                case "--batch":
+                    if (i + 1 < args.length) {
+                        config.batchManifest = Paths.get(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing batch manifest");
+                    }
+                    break;
+                    
+                case "--export-model":
+                    if (i + 1 < args.length) {
+                        config.exportModel = Paths.get(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing model snapshot path");
+                    }
+                    break;
+                    
+                case "--import-model":
+                    if (i + 1 < args.length) {
+                        config.importModel = Paths.get(args[++i]);
+                    } else {
+                        throw new IllegalArgumentException("Missing model snapshot path");
+                    }
+                    break;
+                    
+                case "--diff":
+                    if (i + 2 < args.length) {
+                        config.diffOld = Paths.get(args[++i].replace('\\', '/'));
+                        config.diffNew = Paths.get(args[++i].replace('\\', '/'));
+                    } else {
+                        throw new IllegalArgumentException("--diff needs the old and the new model");
+                    }
+                    break;
+                    
+                case "--no-encode":
+                    config.encodeUrl = false;
+                    break;
+                    
+                case "--encode-limit":
+                    if (i + 1 < args.length) {
+                        config.encodeLimitKb = parseCount(args[++i], "encoding limit");
+                    } else {
+                        throw new IllegalArgumentException("Missing encoding limit");
+                    }
+                    break;
+                    
+                case "--metrics":
+                    config.writeMetrics = true;
+                    break;
+                    
+                case "--metrics-top":
+                    if (i + 1 < args.length) {
+                        config.writeMetrics = true;
+                        config.slowestFiles = parseCount(args[++i], "slowest file count");
+                    } else {
+                        throw new IllegalArgumentException("Missing slowest file count");
+                    }
+                    break;
+                    
                 case "-h", "--help":
                     printUsage();
                     System.exit(0);
@@ -186,15 +579,43 @@ public class UMLGeneratorCLI {
             }
         }
         
+        if (config.pipeline && config.virtualThreads) {
+            // the pipeline runs its own fixed worker pool
+            throw new IllegalArgumentException("--pipeline and --virtual-threads cannot be combined");
+        }
+        
         // Set defaults
-        if (config.inputPath == null) {
+        if (config.batchManifest != null) {
+            // inputs and outputs come from the manifest
+            return config;
+        }
+        if (config.diffOld != null) {
+            if (config.inputPath != null || config.importModel != null || config.watch) {
+                throw new IllegalArgumentException("--diff takes both models itself, give no other input");
+            }
+            if (config.outputPath == null) {
+                config.outputPath = Paths.get("diff.puml");
+            }
+            return config;
+        }
+        if (config.importModel != null) {
+            if (config.inputPath != null) {
+                throw new IllegalArgumentException("--import-model replaces the input path, give only one");
+            }
+            if (config.watch) {
+                throw new IllegalArgumentException("--watch needs an input path, not a model snapshot");
+            }
+        } else if (config.inputPath == null) {
             throw new IllegalArgumentException("Input path is required");
         }
         
         if (config.outputPath == null) {
-            String inputName = config.inputPath.getFileName().toString();
+            Path source = config.importModel != null ? config.importModel : config.inputPath;
+            String inputName = source.getFileName().toString();
             if (inputName.endsWith(".java")) {
                 inputName = inputName.substring(0, inputName.length() - 5);
+            } else if (inputName.endsWith(".umlmodel")) {
+                inputName = inputName.substring(0, inputName.length() - 9);
             }
             config.outputPath = Paths.get(inputName + ".puml");
         }
@@ -202,6 +623,18 @@ public class UMLGeneratorCLI {
         return config;
     }
     
+    private static int parseCount(String value, String description) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count < 1) {
+                throw new IllegalArgumentException("Invalid " + description + ", must be at least 1: " + value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + description + ": " + value);
+        }
+    }
+    
     private static void printUsage() {
         System.out.println("UML Generator - Convert Java code to PlantUML diagrams");
         System.out.println();
@@ -217,20 +650,108 @@ public class UMLGeneratorCLI {
         System.out.println("  -o, --output <path>       Output PlantUML file (default: <input>.puml)");
         System.out.println("  --no-relationships       Skip relationship analysis");
         System.out.println("  -v, --verbose             Verbose output with relationship details");
+        System.out.println("  -q, --quiet               Print errors only (same as --log-level quiet)");
+        System.out.println("  --log-level <level>       quiet, info (default) or debug; debug lists every parsed");
+        System.out.println("                            class, file and relationship found");
         System.out.println("  -p, --preview             Show PlantUML preview in console");
+        System.out.println("  -t, --threads <n>         Parse files and analyze relationships on n threads (default: 1)");
+        System.out.println("  --cache                   Reuse parse results of unchanged files (.umlcache next to output)");
+        System.out.println("  --cache-dir <path>        Use the given parse cache directory");
+        System.out.println("  --virtual-threads         Read each file on its own virtual thread; --threads caps parsing");
+        System.out.println("                            (default: one parse per CPU core)");
+        System.out.println("  --pipeline                Overlap file discovery, parsing and analysis");
+        System.out.println("                            (not with --virtual-threads)");
+        System.out.println("  --signatures-only         Skip method bodies while parsing (local classes are not listed)");
+        System.out.println("  --metrics                 Write phase timings and parse latencies to <output>.metrics.json");
+        System.out.println("  --metrics-top <n>         Number of slowest files listed in the metrics (default: 10)");
+        System.out.println("  --shard <mode>            Split the diagram by package, component or size and write");
+        System.out.println("                            <output> as an index linking the shards");
+        System.out.println("  --shard-size <n>          Maximum classes per shard (default: 200; whole components are kept)");
+        System.out.println("  --watch                   Keep running and update the diagram whenever sources change");
+        System.out.println("  --batch <manifest>        Generate every input/output pair of a JSON manifest in one run,");
+        System.out.println("                            sharing parse results; --threads entries at a time (default: cores)");
+        System.out.println("  --export-model <file>     Also save the analyzed model as a binary snapshot");
+        System.out.println("  --import-model <file>     Render a saved model snapshot instead of parsing an input");
+        System.out.println("  --diff <old> <new>        Write only what changed between two models (snapshots, files or");
+        System.out.println("                            directories) as a highlighted delta diagram (default: diff.puml)");
+        System.out.println("  --no-encode               Skip the PlantUML server URL (saves deflating large diagrams)");
+        System.out.println("  --encode-limit <kb>       Skip the URL for diagrams larger than this (default: 1024)");
+        System.out.println("  --daemon                  Stay resident and serve JSON-lines requests on stdin/stdout");
         System.out.println("  -h, --help                Show this help message");
         System.out.println();
         System.out.println("Examples:");
         System.out.println("  java -jar uml-generator.jar src/main/java");
         System.out.println("  java -jar uml-generator.jar -i MyClass.java -o diagram.puml");
         System.out.println("  java -jar uml-generator.jar src/ --no-relationships -v");
+        System.out.println("  java -jar uml-generator.jar src/main/java --threads 8");
+        System.out.println("  java -jar uml-generator.jar --batch diagrams.json --signatures-only");
+        System.out.println("  java -jar uml-generator.jar src/ --export-model app.umlmodel");
+        System.out.println("  java -jar uml-generator.jar --import-model app.umlmodel --shard package");
+        System.out.println("  java -jar uml-generator.jar --diff main.umlmodel pr.umlmodel -o changes.puml");
     }
     
-    private static class UMLGeneratorConfig {
+    static class UMLGeneratorConfig {
         Path inputPath;
         Path outputPath;
         boolean includeRelationships = true;
         boolean verbose = false;
         boolean showPreview = false;
+        Log.Level logLevel = Log.Level.INFO;
+        int threads = 1;
+        boolean useCache = false;
+        boolean signaturesOnly = false;
+        boolean pipeline = false;
+        boolean virtualThreads = false;
+        Path cacheDir;
+        boolean writeMetrics = false;
+        int slowestFiles = 10;
+        boolean watch = false;
+        // null writes a single diagram
+        DiagramSharder.Mode shardMode;
+        int shardSize = 200;
+        boolean encodeUrl = true;
+        // larger diagrams get no URL, the PlantUML server rejects them anyway
+        int encodeLimitKb = 1024;
+        // cache owned by a long-running caller, overrides useCache
+        ParseCache sharedCache;
+        // set for --batch, the other options then serve as defaults for every entry
+        Path batchManifest;
+        // binary model snapshot written after analysis, see UMLSnapshotFile
+        Path exportModel;
+        // model snapshot rendered instead of parsing inputPath
+        Path importModel;
+        // set for --diff, the two models to compare
+        Path diffOld;
+        Path diffNew;
+        
+        UMLGeneratorConfig copy() {
+            UMLGeneratorConfig copy = new UMLGeneratorConfig();
+            copy.inputPath = inputPath;
+            copy.outputPath = outputPath;
+            copy.includeRelationships = includeRelationships;
+            copy.verbose = verbose;
+            copy.showPreview = showPreview;
+            copy.logLevel = logLevel;
+            copy.threads = threads;
+            copy.useCache = useCache;
+            copy.signaturesOnly = signaturesOnly;
+            copy.pipeline = pipeline;
+            copy.virtualThreads = virtualThreads;
+            copy.cacheDir = cacheDir;
+            copy.writeMetrics = writeMetrics;
+            copy.slowestFiles = slowestFiles;
+            copy.watch = watch;
+            copy.shardMode = shardMode;
+            copy.shardSize = shardSize;
+            copy.encodeUrl = encodeUrl;
+            copy.encodeLimitKb = encodeLimitKb;
+            copy.sharedCache = sharedCache;
+            copy.batchManifest = batchManifest;
+            copy.exportModel = exportModel;
+            copy.importModel = importModel;
+            copy.diffOld = diffOld;
+            copy.diffNew = diffNew;
+            return copy;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Long-running generator that serves JSON-lines requests on stdin/stdout.
+ *
+ * One request per line, for example:
+ *   {"id": 1, "command": "generate", "input": "src", "output": "src.puml"}
+ * Each request gets exactly one response line carrying the same id. Parse
+ * results stay in an in-memory cache between requests, so unchanged files
+ * are not parsed again and the JVM stays warm.
+ *
+ * Progress output of the generator is redirected to stderr to keep stdout
+ * reserved for the protocol.
+ */
+public class UMLGeneratorDaemon {
+
+    private final ParseCache cache = ParseCache.inMemory();
+    private final UMLGeneratorCLI generator = new UMLGeneratorCLI();
+
+    public void run() throws IOException {
+        PrintStream protocolOut = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        System.setOut(System.err);
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        protocolOut.println(Json.write(Map.of("event", "ready")));
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            boolean shutdown = false;
+            try {
+                Map<String, Object> request = Json.parseObject(line);
+                response.put("id", request.get("id"));
+                String command = stringValue(request, "command", "generate");
+
+                switch (command) {
+                    case "generate":
+                        handleGenerate(request, response);
+                        break;
+                    case "ping":
+                        response.put("ok", true);
+                        response.put("cachedFiles", cache.size());
+                        break;
+                    case "shutdown":
+                        response.put("ok", true);
+                        shutdown = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown command: " + command);
+                }
+            } catch (Exception e) {
+                response.put("ok", false);
+                response.put("error", e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+
+            protocolOut.println(Json.write(response));
+            if (shutdown) {
+                break;
+            }
+        }
+    }
+
+    private void handleGenerate(Map<String, Object> request, Map<String, Object> response) throws Exception {
+        UMLGeneratorCLI.UMLGeneratorConfig config = new UMLGeneratorCLI.UMLGeneratorConfig();
+
+        String input = stringValue(request, "input", null);
+        if (input == null) {
+            throw new IllegalArgumentException("Input path is required");
+        }
+        config.inputPath = Paths.get(input.replace('\\', '/'));
+
+        String output = stringValue(request, "output", null);
+        config.outputPath = output != null ? Paths.get(output) : defaultOutput(config.inputPath);
+        config.includeRelationships = booleanValue(request, "includeRelationships", true);
+        config.verbose = booleanValue(request, "verbose", false);
+        config.signaturesOnly = booleanValue(request, "signaturesOnly", false);
+        config.pipeline = booleanValue(request, "pipeline", false);
+        config.virtualThreads = booleanValue(request, "virtualThreads", false);
+        if (config.pipeline && config.virtualThreads) {
+            throw new IllegalArgumentException("pipeline and virtualThreads cannot be combined");
+        }
+        config.threads = (int) longValue(request, "threads", Runtime.getRuntime().availableProcessors());
+        config.encodeUrl = booleanValue(request, "encode", true);
+        config.encodeLimitKb = (int) Math.max(1, longValue(request, "encodeLimitKb", config.encodeLimitKb));
+        config.sharedCache = cache;
+
+        // Drop entries for files deleted since the last request
+        cache.evictMissing();
+        long start = System.nanoTime();
+        String url = generator.generateUML(config);
+
+        response.put("ok", true);
+        response.put("output", config.outputPath.toString());
+        // null when the diagram was too large to encode
+        response.put("url", url);
+        response.put("millis", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static Path defaultOutput(Path inputPath) {
+        String inputName = inputPath.getFileName().toString();
+        if (inputName.endsWith(".java")) {
+            inputName = inputName.substring(0, inputName.length() - 5);
+        }
+        return Paths.get(inputName + ".puml");
+    }
+
+    private static String stringValue(Map<String, Object> request, String key, String defaultValue) {
+        Object value = request.get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static boolean booleanValue(Map<String, Object> request, String key, boolean defaultValue) {
+        Object value = request.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    private static long longValue(Map<String, Object> request, String key, long defaultValue) {
+        Object value = request.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    public static void main(String[] args) throws IOException {
+        new UMLGeneratorDaemon().run();
+    }
+}
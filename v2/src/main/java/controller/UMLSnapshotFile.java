@@ -0,0 +1,460 @@
+package controller;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.ClassModel;
+import model.DependencyModel;
+import model.DependencyType;
+import model.FieldModel;
+import model.MethodModel;
+import model.ParameterModel;
+import model.SymbolTable;
+import model.UMLModel;
+import model.UMLSnapshot;
+import model.Visibility;
+
+/**
+ * Saves a built model to a compact binary file and loads it back without
+ * parsing any sources, e.g. to render the same model again or hand it to
+ * another tool.
+ *
+ * Layout: the magic "UMLS", a format version, then sections of
+ *   tag (int), length in bytes (int), content
+ * in the order strings, classes, relationships. Every name, type and
+ * declared value is written once to the string table and referenced by its
+ * index. Counts and indexes are unsigned varints, nullable string indexes
+ * are stored plus one so that 0 means null, and enums are stored by ordinal.
+ * Readers skip sections with unknown tags; any other change to the layout,
+ * including reordering the enums, needs a new FORMAT_VERSION.
+ *
+ * The class table lists the diagram's classes in order, followed by classes
+ * that are only the target of a relationship. Large files are memory-mapped
+ * when loaded, smaller ones are read onto the heap.
+ */
+public final class UMLSnapshotFile {
+
+    private static final int MAGIC = 0x554D4C53;
+    private static final int FORMAT_VERSION = 1;
+    // files below this size are read onto the heap, so they are never left mapped
+    private static final long MAP_THRESHOLD = 8L << 20;
+
+    private static final int SECTION_STRINGS = 1;
+    private static final int SECTION_CLASSES = 2;
+    private static final int SECTION_RELATIONSHIPS = 3;
+
+    private static final int CLASS_INTERFACE = 1;
+    private static final int CLASS_ABSTRACT = 2;
+    private static final int MEMBER_STATIC = 1;
+    private static final int MEMBER_FINAL = 2;
+
+    private static final int UNINTERNED = -2;
+
+    // smallest encodings of one item, used to reject impossible counts in corrupt files
+    private static final int MIN_CLASS_BYTES = 6;
+    private static final int MIN_MEMBER_BYTES = 5;
+    private static final int MIN_PARAMETER_BYTES = 2;
+    private static final int MIN_RELATIONSHIP_BYTES = 3;
+
+    private static final Visibility[] VISIBILITIES = Visibility.values();
+    private static final DependencyType[] DEPENDENCY_TYPES = DependencyType.values();
+
+    private UMLSnapshotFile() {
+    }
+
+    /**
+     * Writes the snapshot to file, replacing it atomically where the file system allows
+     */
+    public static void write(UMLSnapshot snapshot, Path file) throws IOException {
+        StringTable strings = new StringTable();
+
+        // Index every class the diagram mentions; relationship targets outside it go last
+        Map<ClassModel, Integer> classIndex = new IdentityHashMap<>();
+        List<ClassModel> classes = new ArrayList<>(snapshot.getClasses());
+        for (ClassModel classModel : classes) {
+            classIndex.putIfAbsent(classModel, classIndex.size());
+        }
+        int diagramClasses = classes.size();
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            for (ClassModel end : new ClassModel[] {relationship.getFromClass(), relationship.getToClass()}) {
+                if (classIndex.putIfAbsent(end, classes.size()) == null) {
+                    classes.add(end);
+                }
+            }
+        }
+
+        Section classSection = new Section();
+        classSection.varInt(classes.size());
+        classSection.varInt(diagramClasses);
+        for (ClassModel classModel : classes) {
+            writeClass(classSection, classModel, strings);
+        }
+
+        Section relationshipSection = new Section();
+        relationshipSection.varInt(snapshot.getRelationships().size());
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            relationshipSection.varInt(classIndex.get(relationship.getFromClass()));
+            relationshipSection.varInt(classIndex.get(relationship.getToClass()));
+            relationshipSection.writeByte(relationship.getType().ordinal());
+        }
+
+        Section stringSection = new Section();
+        stringSection.varInt(strings.values.size());
+        for (String value : strings.values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            stringSection.varInt(bytes.length);
+            stringSection.write(bytes);
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // Write to a temporary file first so readers never see a partial snapshot
+        Path tempFile = directory.resolve(file.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                stringSection.writeTo(out, SECTION_STRINGS);
+                classSection.writeTo(out, SECTION_CLASSES);
+                relationshipSection.writeTo(out, SECTION_RELATIONSHIPS);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Loads a model written by write(); it can be changed and frozen like a parsed one.
+     * Files of 8 MB and more are memory-mapped, and the mapping stays open until it is
+     * garbage collected; on Windows the file cannot be replaced or deleted until then.
+     * Callers that write the same file again use read(file, false).
+     */
+    public static UMLModel read(Path file) throws IOException {
+        return read(file, true);
+    }
+
+    /**
+     * @param mayMap whether a large file may be memory-mapped; false reads any file onto the heap
+     */
+    public static UMLModel read(Path file, boolean mayMap) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (mayMap && size >= MAP_THRESHOLD) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else if (size > Integer.MAX_VALUE) {
+                throw new IOException("Model snapshot too large to read without mapping: " + file);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        // the file shrank meanwhile; what was read fails as truncated
+                        break;
+                    }
+                }
+                buffer.flip();
+            }
+        }
+
+        try {
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a model snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported model snapshot version " + version + " (expected "
+                        + FORMAT_VERSION + "): " + file);
+            }
+
+            UMLModel umlModel = new UMLModel();
+            String[] strings = null;
+            ClassModel[] classes = null;
+            while (buffer.hasRemaining()) {
+                int tag = buffer.getInt();
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException("Corrupt model snapshot, section " + tag + " has length " + length
+                            + " with " + buffer.remaining() + " bytes left: " + file);
+                }
+                ByteBuffer section = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+
+                if (tag == SECTION_STRINGS) {
+                    strings = readStrings(section);
+                } else if (tag == SECTION_CLASSES) {
+                    classes = readClasses(section, require(strings, "strings", file), umlModel);
+                } else if (tag == SECTION_RELATIONSHIPS) {
+                    readRelationships(section, require(classes, "classes", file), umlModel);
+                }
+            }
+            require(classes, "classes", file);
+            return umlModel;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt model snapshot: " + file, e);
+        }
+    }
+
+    private static void writeClass(Section section, ClassModel classModel, StringTable strings) {
+        section.varInt(strings.index(classModel.getClassName()));
+        section.varInt(strings.index(classModel.getPackageName()));
+        section.varInt(strings.index(classModel.getQualifiedName()));
+        section.writeByte((classModel.isInterface() ? CLASS_INTERFACE : 0)
+                | (classModel.isAbstract() ? CLASS_ABSTRACT : 0));
+
+        section.varInt(classModel.getFields().size());
+        for (FieldModel field : classModel.getFields()) {
+            section.writeByte(field.getVisibility().ordinal());
+            section.writeByte(memberFlags(field.isStatic(), field.isFinal()));
+            section.varInt(strings.symbolIndex(field.getReturnTypeId()));
+            section.varInt(strings.symbolIndex(field.getNameId()));
+            section.varInt(strings.nullableIndex(field.getDeclaredValues()));
+        }
+
+        section.varInt(classModel.getMethods().size());
+        for (MethodModel method : classModel.getMethods()) {
+            section.writeByte(method.getVisibility().ordinal());
+            section.writeByte(memberFlags(method.isStatic(), method.isFinal()));
+            section.varInt(strings.symbolIndex(method.getReturnTypeId()));
+            section.varInt(strings.symbolIndex(method.getNameId()));
+            section.varInt(method.getParameters().size());
+            for (ParameterModel parameter : method.getParameters()) {
+                section.varInt(strings.symbolIndex(parameter.getDataTypeId()));
+                section.varInt(strings.symbolIndex(parameter.getNameId()));
+            }
+        }
+    }
+
+    private static int memberFlags(boolean isStatic, boolean isFinal) {
+        return (isStatic ? MEMBER_STATIC : 0) | (isFinal ? MEMBER_FINAL : 0);
+    }
+
+    private static String[] readStrings(ByteBuffer section) {
+        String[] strings = new String[readCount(section, 1)];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            int length = readCount(section, 1);
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            section.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static ClassModel[] readClasses(ByteBuffer section, String[] strings, UMLModel umlModel) {
+        ClassModel[] classes = new ClassModel[readCount(section, MIN_CLASS_BYTES)];
+        int diagramClasses = readVarInt(section);
+        if (diagramClasses < 0 || diagramClasses > classes.length) {
+            throw new IllegalArgumentException("Diagram class count " + diagramClasses + " out of range");
+        }
+        // SymbolTable ids of the strings used as member names and types, interned on first use
+        int[] symbols = new int[strings.length];
+        Arrays.fill(symbols, UNINTERNED);
+        for (int i = 0; i < classes.length; i++) {
+            ClassModel classModel = new ClassModel(strings[readVarInt(section)]);
+            classModel.setPackageName(strings[readVarInt(section)]);
+            classModel.setQualifiedName(strings[readVarInt(section)]);
+            int flags = section.get();
+            classModel.setIsInterface((flags & CLASS_INTERFACE) != 0);
+            classModel.setIsAbstract((flags & CLASS_ABSTRACT) != 0);
+
+            int fieldCount = readCount(section, MIN_MEMBER_BYTES);
+            for (int f = 0; f < fieldCount; f++) {
+                Visibility visibility = VISIBILITIES[section.get()];
+                int memberFlags = section.get();
+                classModel.addField(new FieldModel(visibility, (memberFlags & MEMBER_STATIC) != 0,
+                        (memberFlags & MEMBER_FINAL) != 0, symbol(section, strings, symbols),
+                        symbol(section, strings, symbols), nullableString(section, strings)));
+            }
+
+            int methodCount = readCount(section, MIN_MEMBER_BYTES);
+            for (int m = 0; m < methodCount; m++) {
+                Visibility visibility = VISIBILITIES[section.get()];
+                int memberFlags = section.get();
+                MethodModel method = new MethodModel(visibility, (memberFlags & MEMBER_STATIC) != 0,
+                        (memberFlags & MEMBER_FINAL) != 0, symbol(section, strings, symbols),
+                        symbol(section, strings, symbols));
+                int parameterCount = readCount(section, MIN_PARAMETER_BYTES);
+                for (int p = 0; p < parameterCount; p++) {
+                    method.addParameters(new ParameterModel(symbol(section, strings, symbols),
+                            symbol(section, strings, symbols)));
+                }
+                classModel.addMethod(method);
+            }
+
+            classes[i] = classModel;
+            if (i < diagramClasses) {
+                umlModel.addClassToDiagram(classModel);
+            }
+        }
+        return classes;
+    }
+
+    private static void readRelationships(ByteBuffer section, ClassModel[] classes, UMLModel umlModel) {
+        int count = readCount(section, MIN_RELATIONSHIP_BYTES);
+        List<DependencyModel> relationships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ClassModel fromClass = classes[readVarInt(section)];
+            ClassModel toClass = classes[readVarInt(section)];
+            relationships.add(new DependencyModel(fromClass, toClass, DEPENDENCY_TYPES[section.get()]));
+        }
+        // Written from a model, so already free of duplicates
+        umlModel.addDistinctRelationships(relationships);
+    }
+
+    private static String nullableString(ByteBuffer section, String[] strings) {
+        int index = readVarInt(section);
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    /**
+     * Reads a nullable string index and returns the SymbolTable id of that string.
+     * Looking each string up once, not once per use, keeps the shared pool out of the hot loop.
+     */
+    private static int symbol(ByteBuffer section, String[] strings, int[] symbols) {
+        int index = readVarInt(section);
+        if (index == 0) {
+            return SymbolTable.NONE;
+        }
+        int id = symbols[index - 1];
+        if (id == UNINTERNED) {
+            id = SymbolTable.intern(strings[index - 1]);
+            symbols[index - 1] = id;
+        }
+        return id;
+    }
+
+    /**
+     * Reads the number of items that follow, each taking at least minBytes,
+     * and rejects counts the rest of the section cannot hold before anything is allocated
+     */
+    private static int readCount(ByteBuffer section, int minBytes) {
+        int count = readVarInt(section);
+        if (count < 0 || count > section.remaining() / minBytes) {
+            throw new IllegalArgumentException("Count " + count + " exceeds the " + section.remaining()
+                    + " bytes left in its section");
+        }
+        return count;
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static <T> T require(T value, String section, Path file) throws IOException {
+        if (value == null) {
+            throw new IOException("Model snapshot has no " + section + " section before it is needed: " + file);
+        }
+        return value;
+    }
+
+    /**
+     * Distinct strings in order of first use
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        // nullable index per SymbolTable id, 0 until the symbol is first used
+        private int[] symbolIndexes = new int[SymbolTable.size()];
+
+        int index(String value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+
+        int nullableIndex(String value) {
+            return value == null ? 0 : index(value) + 1;
+        }
+
+        /**
+         * nullableIndex() for a pooled member name or type, found by its id without hashing the string
+         */
+        int symbolIndex(int id) {
+            if (id == SymbolTable.NONE) {
+                return 0;
+            }
+            if (id >= symbolIndexes.length) {
+                symbolIndexes = Arrays.copyOf(symbolIndexes, Math.max(id + 1, SymbolTable.size()));
+            }
+            int index = symbolIndexes[id];
+            if (index == 0) {
+                index = nullableIndex(SymbolTable.name(id));
+                symbolIndexes[id] = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Content of one section, buffered so its length can be written first
+     */
+    private static final class Section {
+        private byte[] bytes = new byte[4096];
+        private int size;
+
+        void writeByte(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void write(byte[] value) {
+            if (bytes.length - size < value.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + value.length));
+            }
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        void varInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeTo(DataOutputStream target, int tag) throws IOException {
+            target.writeInt(tag);
+            target.writeInt(size);
+            target.write(bytes, 0, size);
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-public class ClassModel {
+public class ClassModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     // class name
     private final String className;
+    // package of the declaring compilation unit, empty for the default package
+    private String packageName = "";
+    // package and enclosing classes plus the class name; null means package + class name
+    private String qualifiedName;
     // class fields
     private final List<FieldModel> fields = new ArrayList<>();
     // class methods
@@ -15,6 +22,9 @@ public class ClassModel {
 
     private boolean isInterface;
     private boolean isAbstract;
+    // StructuralHash of this class and of its qualified name, 0 until computed and after every change
+    private transient long cachedHash;
+    private transient long cachedNameHash;
 
     public ClassModel(String className) {
         this.className = className;
@@ -23,12 +33,14 @@ public class ClassModel {
     public boolean addField(FieldModel field) {
         if (field == null)
             return false;
+        cachedHash = 0;
         return fields.add(field);
     }
 
     public boolean addMethod(MethodModel method) {
         if (method == null)
             return false;
+        cachedHash = 0;
         return methods.add(method);
     }
 
@@ -62,6 +74,32 @@ public class ClassModel {
         return className;
     }
 
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName != null ? packageName : "";
+        cachedHash = 0;
+        cachedNameHash = 0;
+    }
+
+    /**
+     * The fully qualified name, which tells apart classes sharing a simple name
+     */
+    public String getQualifiedName() {
+        if (qualifiedName != null) {
+            return qualifiedName;
+        }
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+
+    public void setQualifiedName(String qualifiedName) {
+        this.qualifiedName = qualifiedName;
+        cachedHash = 0;
+        cachedNameHash = 0;
+    }
+
     public List<FieldModel> getFields() {
         return Collections.unmodifiableList(fields);
     }
@@ -89,10 +127,28 @@ public class ClassModel {
 
     public void setIsInterface(boolean set) {
         this.isInterface = set;
+        cachedHash = 0;
     }
 
     public void setIsAbstract(boolean set) {
         this.isAbstract = set;
+        cachedHash = 0;
+    }
+
+    long getCachedHash() {
+        return cachedHash;
+    }
+
+    void setCachedHash(long hash) {
+        cachedHash = hash;
+    }
+
+    long getCachedNameHash() {
+        return cachedNameHash;
+    }
+
+    void setCachedNameHash(long hash) {
+        cachedNameHash = hash;
     }
 
     @Override
@@ -102,12 +158,12 @@ public class ClassModel {
         if (obj == null || getClass() != obj.getClass())
             return false;
         ClassModel that = (ClassModel) obj;
-        return className.equals(that.className);
+        return getQualifiedName().equals(that.getQualifiedName());
     }
 
     @Override
     public int hashCode() {
-        return className.hashCode();
+        return getQualifiedName().hashCode();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,242 @@
+package model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Type references of a single class, in declaration order.
+ * Holds everything relationship analysis needs so it can run without the AST.
+ * Type names are pooled in the SymbolTable, so equal names share one instance.
+ */
+public class ClassSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // class name
+    private final String className;
+    private final String qualifiedName;
+    // package and imports of the declaring file, null if unknown
+    private final TypeScope scope;
+    // extends / implements
+    private final List<String> extendedTypes = new ArrayList<>();
+    private final List<String> implementedTypes = new ArrayList<>();
+    // one entry per declared variable
+    private final List<FieldReference> fields = new ArrayList<>();
+    private final List<MethodReference> methods = new ArrayList<>();
+    // parameter types of each constructor
+    private final List<List<String>> constructors = new ArrayList<>();
+
+    public ClassSummary(String className) {
+        this(className, className, null);
+    }
+
+    public ClassSummary(String className, String qualifiedName, TypeScope scope) {
+        this.className = className;
+        this.qualifiedName = qualifiedName;
+        this.scope = scope;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public TypeScope getScope() {
+        return scope;
+    }
+
+    public List<String> getExtendedTypes() {
+        return Collections.unmodifiableList(extendedTypes);
+    }
+
+    public List<String> getImplementedTypes() {
+        return Collections.unmodifiableList(implementedTypes);
+    }
+
+    public List<FieldReference> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    public List<MethodReference> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    public List<List<String>> getConstructors() {
+        return Collections.unmodifiableList(constructors);
+    }
+
+    /**
+     * Every type name this class refers to, in first-seen order
+     */
+    public Set<String> getReferencedTypes() {
+        Set<String> types = new LinkedHashSet<>(extendedTypes);
+        types.addAll(implementedTypes);
+        for (FieldReference field : fields) {
+            types.add(field.getTypeName());
+            types.addAll(field.getTypeArguments());
+            types.add(field.getArrayComponent());
+        }
+        for (MethodReference method : methods) {
+            types.addAll(method.getParameterTypes());
+            types.add(method.getReturnType());
+        }
+        constructors.forEach(types::addAll);
+        types.remove(null);
+        return types;
+    }
+
+    public void addExtendedType(String typeName) {
+        extendedTypes.add(SymbolTable.canonical(typeName));
+    }
+
+    public void addImplementedType(String typeName) {
+        implementedTypes.add(SymbolTable.canonical(typeName));
+    }
+
+    public void addField(FieldReference field) {
+        fields.add(field);
+    }
+
+    public void addMethod(MethodReference method) {
+        methods.add(method);
+    }
+
+    public void addConstructor(List<String> parameterTypes) {
+        constructors.add(canonical(parameterTypes));
+    }
+
+    private static List<String> canonical(List<String> typeNames) {
+        List<String> pooled = new ArrayList<>(typeNames.size());
+        for (String typeName : typeNames) {
+            pooled.add(SymbolTable.canonical(typeName));
+        }
+        return List.copyOf(pooled);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassSummary{" +
+                "className='" + className + '\'' +
+                ", extends=" + extendedTypes +
+                ", implements=" + implementedTypes +
+                ", fields=" + fields +
+                ", methods=" + methods +
+                '}';
+    }
+
+    /**
+     * Type information of one field variable
+     */
+    public static class FieldReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final String typeName;
+        private final List<String> typeArguments;
+        // component of an array element type, null otherwise
+        private final String arrayComponent;
+        private final boolean isFinal;
+        private final boolean isPrivate;
+        private final boolean hasModifiers;
+        private final boolean isCollection;
+
+        public FieldReference(String name, String typeName, List<String> typeArguments, String arrayComponent,
+                boolean isFinal, boolean isPrivate, boolean hasModifiers, boolean isCollection) {
+            this.name = SymbolTable.canonical(name);
+            this.typeName = SymbolTable.canonical(typeName);
+            this.typeArguments = canonical(typeArguments);
+            this.arrayComponent = SymbolTable.canonical(arrayComponent);
+            this.isFinal = isFinal;
+            this.isPrivate = isPrivate;
+            this.hasModifiers = hasModifiers;
+            this.isCollection = isCollection;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+
+        public List<String> getTypeArguments() {
+            return typeArguments;
+        }
+
+        public String getArrayComponent() {
+            return arrayComponent;
+        }
+
+        public boolean isFinal() {
+            return isFinal;
+        }
+
+        public boolean isPrivate() {
+            return isPrivate;
+        }
+
+        public boolean hasModifiers() {
+            return hasModifiers;
+        }
+
+        public boolean isCollection() {
+            return isCollection;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + typeName + (typeArguments.isEmpty() ? "" : typeArguments);
+        }
+
+        // Deserialized names are pooled again, e.g. for parse cache hits
+        private Object readResolve() {
+            return new FieldReference(name, typeName, typeArguments, arrayComponent,
+                    isFinal, isPrivate, hasModifiers, isCollection);
+        }
+    }
+
+    /**
+     * Parameter and return types of one method
+     */
+    public static class MethodReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final List<String> parameterTypes;
+        private final String returnType;
+
+        public MethodReference(String name, List<String> parameterTypes, String returnType) {
+            this.name = SymbolTable.canonical(name);
+            this.parameterTypes = canonical(parameterTypes);
+            this.returnType = SymbolTable.canonical(returnType);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public String getReturnType() {
+            return returnType;
+        }
+
+        @Override
+        public String toString() {
+            return name + parameterTypes + ": " + returnType;
+        }
+
+        private Object readResolve() {
+            return new MethodReference(name, parameterTypes, returnType);
+        }
+    }
+}
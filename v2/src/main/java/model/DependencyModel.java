@@ -35,14 +35,14 @@ public class DependencyModel {
             return false;
 
         DependencyModel that = (DependencyModel) obj;
-        return fromClass.getClassName().equals(that.fromClass.getClassName()) &&
-                toClass.getClassName().equals(that.toClass.getClassName()) &&
+        return fromClass.getQualifiedName().equals(that.fromClass.getQualifiedName()) &&
+                toClass.getQualifiedName().equals(that.toClass.getQualifiedName()) &&
                 type == that.type;
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(fromClass.getClassName(), toClass.getClassName(), type);
+        return java.util.Objects.hash(fromClass.getQualifiedName(), toClass.getQualifiedName(), type);
     }
 
     @Override
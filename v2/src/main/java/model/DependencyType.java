@@ -1,21 +1,32 @@
 package model;
 
 public enum DependencyType {
-    AGGREGATION("o--"),
-    ASSOCIATION("-->"),
-    COMPOSITION("*--"),
-    DEPENDENCY("..>"),
-    INHERITANCE("--|>"),
-    REALIZATION("..|>");
+    AGGREGATION("o--", 3),
+    ASSOCIATION("-->", 2),
+    COMPOSITION("*--", 4),
+    DEPENDENCY("..>", 1),
+    INHERITANCE("--|>", 6),
+    REALIZATION("..|>", 5);
 
     private final String arrow;
+    // Inheritance > Realization > Composition > Aggregation > Association > Dependency
+    private final int strength;
 
-    private DependencyType(String arrow) {
+    private DependencyType(String arrow, int strength) {
         this.arrow = arrow;
+        this.strength = strength;
     }
 
     public String getArrow() {
         return arrow;
     }
 
+    public int getStrength() {
+        return strength;
+    }
+
+    public boolean isStrongerThan(DependencyType other) {
+        return strength > other.strength;
+    }
+
 }
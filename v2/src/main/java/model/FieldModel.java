@@ -1,17 +1,22 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+public class FieldModel implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class FieldModel {
     // visiblity
     private Visibility visibility;
     // isStatic
     private boolean isStatic;
     // isFinal
     private boolean isFinal;
-    // return type
-    private String returnType;
-    // field name
-    private String name;
+    // return type and field name as SymbolTable ids; serialized as strings
+    private transient int returnType;
+    private transient int name;
     // declared value
     private String declaredValues;
 
@@ -20,13 +25,26 @@ public class FieldModel {
         this.visibility = visibility;
         this.isStatic = isStatic;
         this.isFinal = isFinal;
-        this.returnType = returnType;
-        this.name = name;
+        this.returnType = SymbolTable.intern(returnType);
+        this.name = SymbolTable.intern(name);
         if (declaredValues != null) {
             this.declaredValues = declaredValues;
         }
     }
 
+    /**
+     * Takes SymbolTable ids for the type and name, for loaders that interned them already
+     */
+    public FieldModel(Visibility visibility, boolean isStatic, boolean isFinal, int returnType, int name,
+            String declaredValues) {
+        this.visibility = visibility;
+        this.isStatic = isStatic;
+        this.isFinal = isFinal;
+        this.returnType = returnType;
+        this.name = name;
+        this.declaredValues = declaredValues;
+    }
+
     public Visibility getVisibility() {
         return visibility;
     }
@@ -40,10 +58,18 @@ public class FieldModel {
     }
 
     public String getReturnType() {
+        return SymbolTable.name(returnType);
+    }
+
+    public int getReturnTypeId() {
         return returnType;
     }
 
     public String getName() {
+        return SymbolTable.name(name);
+    }
+
+    public int getNameId() {
         return name;
     }
 
@@ -54,7 +80,19 @@ public class FieldModel {
     @Override
     public String toString() {
         return String.format("FieldModel{name='%s', type='%s', visibility=%s, static=%s, final=%s, default='%s'}",
-                name, returnType, visibility, isStatic, isFinal, declaredValues);
+                getName(), getReturnType(), visibility, isStatic, isFinal, declaredValues);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getReturnType());
+        out.writeObject(getName());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        returnType = SymbolTable.intern((String) in.readObject());
+        name = SymbolTable.intern((String) in.readObject());
     }
 
 }
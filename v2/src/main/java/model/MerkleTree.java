@@ -0,0 +1,148 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural hashes of a snapshot, grouped package > class. Every node
+ * hashes its children independently of their order, so two snapshots with
+ * equal root hashes describe the same diagram, and a package or class with
+ * an equal hash on both sides can be skipped without looking inside.
+ * Packages and classes keep the order of the snapshot, so walking the tree
+ * gives the same, diagram-ordered result on every run.
+ */
+public final class MerkleTree {
+
+    private final Map<String, PackageNode> packages;
+    private final long rootHash;
+
+    MerkleTree(UMLSnapshot snapshot) {
+        Map<String, ClassNode> nodes = new LinkedHashMap<>();
+        // relationships mostly start at the diagram's own class instances, found without building names
+        Map<ClassModel, ClassNode> byInstance = new IdentityHashMap<>();
+        for (ClassModel classModel : snapshot.getClasses()) {
+            ClassNode node = nodeFor(nodes, classModel);
+            // the last class wins, as in UMLSnapshot.findClass
+            node.classModel = classModel;
+            byInstance.put(classModel, node);
+        }
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            ClassNode node = byInstance.get(relationship.getFromClass());
+            if (node == null) {
+                node = nodeFor(nodes, relationship.getFromClass());
+                byInstance.put(relationship.getFromClass(), node);
+            }
+            node.relationships.add(relationship);
+        }
+
+        Map<String, PackageNode> byPackage = new LinkedHashMap<>();
+        for (ClassNode node : nodes.values()) {
+            node.seal();
+            byPackage.computeIfAbsent(node.packageName, PackageNode::new).classes.put(node.qualifiedName, node);
+        }
+        long root = 0;
+        for (PackageNode packageNode : byPackage.values()) {
+            packageNode.seal();
+            root += StructuralHash.mix(StructuralHash.string(packageNode.name), packageNode.hash);
+        }
+        this.packages = Collections.unmodifiableMap(byPackage);
+        this.rootHash = root;
+    }
+
+    private static ClassNode nodeFor(Map<String, ClassNode> nodes, ClassModel classModel) {
+        return nodes.computeIfAbsent(classModel.getQualifiedName(), qualifiedName -> new ClassNode(classModel));
+    }
+
+    public long getRootHash() {
+        return rootHash;
+    }
+
+    public Map<String, PackageNode> getPackages() {
+        return packages;
+    }
+
+    public static final class PackageNode {
+        private final String name;
+        private final Map<String, ClassNode> classes = new LinkedHashMap<>();
+        private long hash;
+
+        private PackageNode(String name) {
+            this.name = name;
+        }
+
+        private void seal() {
+            for (ClassNode node : classes.values()) {
+                hash += StructuralHash.mix(node.nameHash, node.hash);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, ClassNode> getClasses() {
+            return Collections.unmodifiableMap(classes);
+        }
+
+        public long getHash() {
+            return hash;
+        }
+    }
+
+    /**
+     * A class of the diagram and the relationships leaving it. The class is
+     * null when the qualified name only appears as a relationship source.
+     */
+    public static final class ClassNode {
+        private final String packageName;
+        private final String qualifiedName;
+        private final long nameHash;
+        private ClassModel classModel;
+        private final List<DependencyModel> relationships = new ArrayList<>();
+        private long classHash;
+        private long relationshipHash;
+        private long hash;
+
+        private ClassNode(ClassModel first) {
+            this.packageName = first.getPackageName();
+            this.qualifiedName = first.getQualifiedName();
+            this.nameHash = StructuralHash.nameOf(first);
+        }
+
+        private void seal() {
+            classHash = classModel != null ? StructuralHash.of(classModel) : 0;
+            for (DependencyModel relationship : relationships) {
+                relationshipHash += StructuralHash.of(relationship);
+            }
+            hash = StructuralHash.mix(classHash, relationshipHash);
+        }
+
+        public String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        public ClassModel getClassModel() {
+            return classModel;
+        }
+
+        public List<DependencyModel> getRelationships() {
+            return Collections.unmodifiableList(relationships);
+        }
+
+        public long getClassHash() {
+            return classHash;
+        }
+
+        public long getRelationshipHash() {
+            return relationshipHash;
+        }
+
+        public long getHash() {
+            return hash;
+        }
+    }
+}
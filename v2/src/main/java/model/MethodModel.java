@@ -1,23 +1,39 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class MethodModel {
+public class MethodModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     // visiblity
     private Visibility visibility;
     // isStatic
     private boolean isStatic;
     // isFinal
     private boolean isFinal;
-    // return type
-    private String returnType;
-    // method name
-    private String name;
+    // return type (empty for constructors) and method name as SymbolTable ids; serialized as strings
+    private transient int returnType;
+    private transient int name;
     // params (k: name: v:type)
     private final List<ParameterModel> parameters = new ArrayList<>();
 
     public MethodModel(Visibility visibility, boolean isStatic, boolean isFinal, String returnType, String name) {
+        this.visibility = visibility;
+        this.isStatic = isStatic;
+        this.isFinal = isFinal;
+        this.returnType = SymbolTable.intern(returnType);
+        this.name = SymbolTable.intern(name);
+    }
+
+    /**
+     * Takes SymbolTable ids for the return type and name, for loaders that interned them already
+     */
+    public MethodModel(Visibility visibility, boolean isStatic, boolean isFinal, int returnType, int name) {
         this.visibility = visibility;
         this.isStatic = isStatic;
         this.isFinal = isFinal;
@@ -38,10 +54,22 @@ public class MethodModel {
     }
 
     public String getReturnType() {
+        return SymbolTable.name(returnType);
+    }
+
+    public int getReturnTypeId() {
         return returnType;
     }
 
+    public boolean isConstructor() {
+        return returnType == SymbolTable.NONE || returnType == SymbolTable.EMPTY;
+    }
+
     public String getName() {
+        return SymbolTable.name(name);
+    }
+
+    public int getNameId() {
         return name;
     }
 
@@ -56,7 +84,19 @@ public class MethodModel {
     @Override
     public String toString() {
         return String.format("MethodModel{name='%s', returnType='%s', visibility=%s, static=%s, final=%s, params=%s}",
-                name, returnType, visibility, isStatic, isFinal, parameters);
+                getName(), getReturnType(), visibility, isStatic, isFinal, parameters);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getReturnType());
+        out.writeObject(getName());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        returnType = SymbolTable.intern((String) in.readObject());
+        name = SymbolTable.intern((String) in.readObject());
     }
 
 }
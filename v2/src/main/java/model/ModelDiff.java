@@ -0,0 +1,219 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * What changed between two snapshots of a diagram: classes added or removed,
+ * members added or removed from classes on both sides, and relationships
+ * added or removed. Both snapshots are walked through their MerkleTree, so
+ * packages and classes whose hashes match are skipped without being opened.
+ * Every list follows diagram order: the new snapshot's for added and changed
+ * elements, the old snapshot's for removed ones.
+ */
+public final class ModelDiff {
+
+    private final List<ClassModel> addedClasses = new ArrayList<>();
+    private final List<ClassModel> removedClasses = new ArrayList<>();
+    private final List<ClassChange> changedClasses = new ArrayList<>();
+    private final List<DependencyModel> addedRelationships = new ArrayList<>();
+    private final List<DependencyModel> removedRelationships = new ArrayList<>();
+    private int comparedClasses;
+
+    private ModelDiff() {
+    }
+
+    public static ModelDiff between(UMLSnapshot before, UMLSnapshot after) {
+        ModelDiff diff = new ModelDiff();
+        MerkleTree beforeTree = before.getMerkleTree();
+        MerkleTree afterTree = after.getMerkleTree();
+        if (beforeTree.getRootHash() == afterTree.getRootHash()) {
+            return diff;
+        }
+
+        Map<String, MerkleTree.PackageNode> beforePackages = beforeTree.getPackages();
+        Map<String, MerkleTree.PackageNode> afterPackages = afterTree.getPackages();
+        for (MerkleTree.PackageNode afterPackage : afterPackages.values()) {
+            MerkleTree.PackageNode beforePackage = beforePackages.get(afterPackage.getName());
+            if (beforePackage == null || beforePackage.getHash() != afterPackage.getHash()) {
+                diff.comparePackages(beforePackage, afterPackage);
+            }
+        }
+        for (MerkleTree.PackageNode beforePackage : beforePackages.values()) {
+            if (!afterPackages.containsKey(beforePackage.getName())) {
+                diff.comparePackages(beforePackage, null);
+            }
+        }
+        return diff;
+    }
+
+    private void comparePackages(MerkleTree.PackageNode before, MerkleTree.PackageNode after) {
+        Map<String, MerkleTree.ClassNode> beforeClasses = before != null ? before.getClasses() : Map.of();
+        Map<String, MerkleTree.ClassNode> afterClasses = after != null ? after.getClasses() : Map.of();
+        for (MerkleTree.ClassNode afterClass : afterClasses.values()) {
+            MerkleTree.ClassNode beforeClass = beforeClasses.get(afterClass.getQualifiedName());
+            if (beforeClass == null || beforeClass.getHash() != afterClass.getHash()) {
+                compareClasses(beforeClass, afterClass);
+            }
+        }
+        for (MerkleTree.ClassNode beforeClass : beforeClasses.values()) {
+            if (!afterClasses.containsKey(beforeClass.getQualifiedName())) {
+                compareClasses(beforeClass, null);
+            }
+        }
+    }
+
+    private void compareClasses(MerkleTree.ClassNode before, MerkleTree.ClassNode after) {
+        comparedClasses++;
+        ClassModel beforeModel = before != null ? before.getClassModel() : null;
+        ClassModel afterModel = after != null ? after.getClassModel() : null;
+        if (beforeModel == null && afterModel != null) {
+            addedClasses.add(afterModel);
+        } else if (beforeModel != null && afterModel == null) {
+            removedClasses.add(beforeModel);
+        } else if (beforeModel != null && before.getClassHash() != after.getClassHash()) {
+            changedClasses.add(new ClassChange(beforeModel, afterModel));
+        }
+
+        long beforeRelationships = before != null ? before.getRelationshipHash() : 0;
+        long afterRelationships = after != null ? after.getRelationshipHash() : 0;
+        if (beforeRelationships != afterRelationships) {
+            List<DependencyModel> beforeList = before != null ? before.getRelationships() : List.of();
+            List<DependencyModel> afterList = after != null ? after.getRelationships() : List.of();
+            Set<Long> beforeHashes = new HashSet<>();
+            for (DependencyModel relationship : beforeList) {
+                beforeHashes.add(StructuralHash.of(relationship));
+            }
+            Set<Long> afterHashes = new HashSet<>();
+            for (DependencyModel relationship : afterList) {
+                long hash = StructuralHash.of(relationship);
+                afterHashes.add(hash);
+                if (!beforeHashes.contains(hash)) {
+                    addedRelationships.add(relationship);
+                }
+            }
+            for (DependencyModel relationship : beforeList) {
+                if (!afterHashes.contains(StructuralHash.of(relationship))) {
+                    removedRelationships.add(relationship);
+                }
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return addedClasses.isEmpty() && removedClasses.isEmpty() && changedClasses.isEmpty()
+                && addedRelationships.isEmpty() && removedRelationships.isEmpty();
+    }
+
+    public List<ClassModel> getAddedClasses() {
+        return Collections.unmodifiableList(addedClasses);
+    }
+
+    public List<ClassModel> getRemovedClasses() {
+        return Collections.unmodifiableList(removedClasses);
+    }
+
+    public List<ClassChange> getChangedClasses() {
+        return Collections.unmodifiableList(changedClasses);
+    }
+
+    public List<DependencyModel> getAddedRelationships() {
+        return Collections.unmodifiableList(addedRelationships);
+    }
+
+    public List<DependencyModel> getRemovedRelationships() {
+        return Collections.unmodifiableList(removedRelationships);
+    }
+
+    /**
+     * Number of classes whose hashes differed and had to be opened
+     */
+    public int getComparedClasses() {
+        return comparedClasses;
+    }
+
+    /**
+     * A class present on both sides whose header or members differ
+     */
+    public static final class ClassChange {
+        private final ClassModel before;
+        private final ClassModel after;
+        private final boolean headerChanged;
+        private final List<FieldModel> addedFields;
+        private final List<FieldModel> removedFields;
+        private final List<MethodModel> addedMethods;
+        private final List<MethodModel> removedMethods;
+
+        private ClassChange(ClassModel before, ClassModel after) {
+            this.before = before;
+            this.after = after;
+            this.headerChanged = StructuralHash.headerOf(before) != StructuralHash.headerOf(after);
+            this.addedFields = new ArrayList<>();
+            this.removedFields = new ArrayList<>();
+            subtract(after.getFields(), before.getFields(), addedFields, StructuralHash::of);
+            subtract(before.getFields(), after.getFields(), removedFields, StructuralHash::of);
+            this.addedMethods = new ArrayList<>();
+            this.removedMethods = new ArrayList<>();
+            subtract(after.getMethods(), before.getMethods(), addedMethods, StructuralHash::of);
+            subtract(before.getMethods(), after.getMethods(), removedMethods, StructuralHash::of);
+        }
+
+        /**
+         * Adds to result the members of from that are not in other, counting duplicates
+         */
+        private static <T> void subtract(List<T> from, List<T> other, List<T> result, ToLongFunction<T> hasher) {
+            Map<Long, Integer> remaining = new HashMap<>();
+            for (T member : other) {
+                remaining.merge(hasher.applyAsLong(member), 1, Integer::sum);
+            }
+            for (T member : from) {
+                long hash = hasher.applyAsLong(member);
+                Integer count = remaining.get(hash);
+                if (count == null) {
+                    result.add(member);
+                } else if (count == 1) {
+                    remaining.remove(hash);
+                } else {
+                    remaining.put(hash, count - 1);
+                }
+            }
+        }
+
+        public ClassModel getBefore() {
+            return before;
+        }
+
+        public ClassModel getAfter() {
+            return after;
+        }
+
+        /**
+         * Whether the class changed kind, e.g. from class to interface
+         */
+        public boolean isHeaderChanged() {
+            return headerChanged;
+        }
+
+        public List<FieldModel> getAddedFields() {
+            return Collections.unmodifiableList(addedFields);
+        }
+
+        public List<FieldModel> getRemovedFields() {
+            return Collections.unmodifiableList(removedFields);
+        }
+
+        public List<MethodModel> getAddedMethods() {
+            return Collections.unmodifiableList(addedMethods);
+        }
+
+        public List<MethodModel> getRemovedMethods() {
+            return Collections.unmodifiableList(removedMethods);
+        }
+    }
+}
@@ -1,25 +1,61 @@
 package model;
 
-public class ParameterModel {
-    private final String dataType;
-    private final String name;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+public class ParameterModel implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // SymbolTable ids; serialized as strings
+    private transient int dataType;
+    private transient int name;
 
     public ParameterModel(String dataType, String name) {
+        this.dataType = SymbolTable.intern(dataType);
+        this.name = SymbolTable.intern(name);
+    }
+
+    /**
+     * Takes SymbolTable ids, for loaders that interned them already
+     */
+    public ParameterModel(int dataType, int name) {
         this.dataType = dataType;
         this.name = name;
     }
 
     public String getDataType() {
+        return SymbolTable.name(dataType);
+    }
+
+    public int getDataTypeId() {
         return dataType;
     }
 
     public String getName() {
+        return SymbolTable.name(name);
+    }
+
+    public int getNameId() {
         return name;
     }
 
     @Override
     public String toString() {
-        return name + ": " + dataType;
+        return getName() + ": " + getDataType();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(getDataType());
+        out.writeObject(getName());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        dataType = SymbolTable.intern((String) in.readObject());
+        name = SymbolTable.intern((String) in.readObject());
     }
 
 }
@@ -0,0 +1,133 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relationships in insertion order, indexed by (from, to, type).
+ * Existence and strength checks are constant time and allocation free.
+ * Lookups never modify the index: relationships appended by addAllDistinct
+ * are only seen once indexPending has run.
+ * Not thread-safe; UMLModel guards its instance.
+ */
+public class RelationshipIndex {
+
+    private final List<DependencyModel> relationships = new ArrayList<>();
+    // from class -> to class -> relationship types between them, by qualified name
+    private final Map<String, Map<String, EnumSet<DependencyType>>> typesByPair = new HashMap<>();
+    // relationships before this position are in typesByPair; the rest were
+    // appended by addAllDistinct and are indexed by the next lookup
+    private int indexed;
+
+    /**
+     * Adds a relationship unless the same (from, to, type) is already present
+     */
+    public boolean add(DependencyModel relationship) {
+        indexPending();
+        if (!index(relationship)) {
+            return false;
+        }
+        relationships.add(relationship);
+        indexed++;
+        return true;
+    }
+
+    /**
+     * Appends relationships known to be distinct, e.g. those of a saved model,
+     * without indexing them yet; a model that is only rendered never needs the index
+     */
+    public void addAllDistinct(Collection<DependencyModel> distinct) {
+        relationships.addAll(distinct);
+    }
+
+    public boolean hasPending() {
+        return indexed < relationships.size();
+    }
+
+    /**
+     * Indexes the relationships appended by addAllDistinct
+     */
+    public void indexPending() {
+        while (indexed < relationships.size()) {
+            index(relationships.get(indexed++));
+        }
+    }
+
+    private boolean index(DependencyModel relationship) {
+        EnumSet<DependencyType> types = typesByPair
+                .computeIfAbsent(relationship.getFromClass().getQualifiedName(), k -> new HashMap<>())
+                .computeIfAbsent(relationship.getToClass().getQualifiedName(), k -> EnumSet.noneOf(DependencyType.class));
+        return types.add(relationship.getType());
+    }
+
+    public boolean contains(String fromClass, String toClass, DependencyType type) {
+        EnumSet<DependencyType> types = typesBetween(fromClass, toClass);
+        return types != null && types.contains(type);
+    }
+
+    /**
+     * Returns the strongest relationship type between two classes, or null if there is none
+     */
+    public DependencyType strongest(String fromClass, String toClass) {
+        EnumSet<DependencyType> types = typesBetween(fromClass, toClass);
+        if (types == null) {
+            return null;
+        }
+        DependencyType strongest = null;
+        for (DependencyType type : types) {
+            if (strongest == null || type.isStrongerThan(strongest)) {
+                strongest = type;
+            }
+        }
+        return strongest;
+    }
+
+    public boolean hasStrongerThan(String fromClass, String toClass, DependencyType type) {
+        DependencyType strongest = strongest(fromClass, toClass);
+        return strongest != null && strongest.isStrongerThan(type);
+    }
+
+    /**
+     * Removes every relationship leaving one of the given classes; returns how many were removed
+     */
+    public int removeFrom(Set<String> fromClasses) {
+        indexPending();
+        int before = relationships.size();
+        relationships.removeIf(relationship -> fromClasses.contains(relationship.getFromClass().getQualifiedName()));
+        typesByPair.keySet().removeAll(fromClasses);
+        indexed = relationships.size();
+        return before - relationships.size();
+    }
+
+    /**
+     * Puts the relationships in the given order, which must hold exactly the current ones
+     */
+    public void reorder(List<DependencyModel> order) {
+        indexPending();
+        if (order.size() != relationships.size()) {
+            throw new IllegalArgumentException("Reordering " + order.size() + " of " + relationships.size()
+                    + " relationships");
+        }
+        relationships.clear();
+        relationships.addAll(order);
+    }
+
+    public List<DependencyModel> getRelationships() {
+        return Collections.unmodifiableList(relationships);
+    }
+
+    public int size() {
+        return relationships.size();
+    }
+
+    private EnumSet<DependencyType> typesBetween(String fromClass, String toClass) {
+        Map<String, EnumSet<DependencyType>> targets = typesByPair.get(fromClass);
+        return targets != null ? targets.get(toClass) : null;
+    }
+}
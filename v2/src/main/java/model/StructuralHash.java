@@ -0,0 +1,115 @@
+package model;
+
+import java.util.List;
+
+/**
+ * 64-bit hashes of model elements that depend only on what they declare,
+ * never on object identity or SymbolTable ids, so they can be compared
+ * between two runs.
+ *
+ * A class hash covers its names, kind and members. Members are combined
+ * with a sum, so reordering fields or methods does not change the class.
+ * Class and name hashes are cached on the ClassModel until one of its setters runs;
+ * the parser completes members before adding them, so that is enough.
+ */
+public final class StructuralHash {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+    private StructuralHash() {
+    }
+
+    public static long of(ClassModel classModel) {
+        long cached = classModel.getCachedHash();
+        if (cached != 0) {
+            return cached;
+        }
+        long members = 0;
+        for (FieldModel field : classModel.getFields()) {
+            members += of(field);
+        }
+        for (MethodModel method : classModel.getMethods()) {
+            members += of(method);
+        }
+        long hash = mix(headerOf(classModel), members);
+        classModel.setCachedHash(hash);
+        return hash;
+    }
+
+    /**
+     * Hash of what the class declares about itself, without its members
+     */
+    public static long headerOf(ClassModel classModel) {
+        long hash = mix(nameOf(classModel), string(classModel.getClassName()));
+        return mix(hash, (classModel.isInterface() ? 1 : 0) | (classModel.isAbstract() ? 2 : 0));
+    }
+
+    public static long of(FieldModel field) {
+        long hash = mix('F', field.getVisibility().ordinal());
+        hash = mix(hash, (field.isStatic() ? 1 : 0) | (field.isFinal() ? 2 : 0));
+        hash = mix(hash, string(field.getReturnType()));
+        hash = mix(hash, string(field.getName()));
+        return mix(hash, string(field.getDeclaredValues()));
+    }
+
+    public static long of(MethodModel method) {
+        long hash = mix('M', method.getVisibility().ordinal());
+        hash = mix(hash, (method.isStatic() ? 1 : 0) | (method.isFinal() ? 2 : 0));
+        hash = mix(hash, string(method.getReturnType()));
+        hash = mix(hash, string(method.getName()));
+        List<ParameterModel> parameters = method.getParameters();
+        for (ParameterModel parameter : parameters) {
+            hash = mix(hash, string(parameter.getDataType()));
+            hash = mix(hash, string(parameter.getName()));
+        }
+        return mix(hash, parameters.size());
+    }
+
+    /**
+     * Relationships are identified by their ends' qualified names and type, as in RelationshipIndex
+     */
+    public static long of(DependencyModel relationship) {
+        long hash = mix('R', nameOf(relationship.getFromClass()));
+        hash = mix(hash, nameOf(relationship.getToClass()));
+        return mix(hash, relationship.getType().ordinal());
+    }
+
+    /**
+     * Hash of the qualified name, cached on the class since relationships hash it again and again
+     */
+    public static long nameOf(ClassModel classModel) {
+        long cached = classModel.getCachedNameHash();
+        if (cached != 0) {
+            return cached;
+        }
+        long hash = string(classModel.getQualifiedName());
+        classModel.setCachedNameHash(hash);
+        return hash;
+    }
+
+    /**
+     * FNV-1a over the chars of the string
+     */
+    public static long string(String value) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Order-dependent combination of two hashes
+     */
+    public static long mix(long hash, long value) {
+        hash ^= value + NULL_HASH + (hash << 6) + (hash >>> 2);
+        hash *= 0xbf58476d1ce4e5b9L;
+        return hash ^ (hash >>> 31);
+    }
+}
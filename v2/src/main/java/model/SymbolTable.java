@@ -0,0 +1,96 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide pool of the type names and member names used in models.
+ *
+ * Each distinct string is stored once and gets a small integer id, so the
+ * thousands of fields typed "String" or "List<Order>" hold an int instead
+ * of their own copy, and two names are equal exactly when their ids are.
+ * Ids are only meaningful inside one JVM; serialized models write the
+ * strings and intern them again when read.
+ *
+ * Interning is thread-safe. Looking up an id needs no lock, as long as the
+ * id was obtained from intern() or from a model that was safely published.
+ * The pool only grows: names are never released, even after every model
+ * using them is gone. Each distinct name costs its string, a map entry and
+ * an array slot, so a daemon or watcher keeps every name it has ever parsed,
+ * including names from code that was since edited away or from other
+ * projects it served. size() shows how far it has grown.
+ */
+public final class SymbolTable {
+
+    // id of null, which is not stored
+    public static final int NONE = -1;
+    // id of the empty string, e.g. the return type of a constructor
+    public static final int EMPTY = 0;
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    // names by id in fixed-size chunks, so growing never copies existing entries
+    private static volatile String[][] chunks = new String[16][];
+    private static int size;
+
+    static {
+        intern("");
+    }
+
+    private SymbolTable() {
+    }
+
+    /**
+     * Returns the id of the given name, adding it on first use
+     */
+    public static int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer id = IDS.get(name);
+        return id != null ? id : add(name);
+    }
+
+    /**
+     * The pooled instance equal to the given name, for strings kept as strings
+     */
+    public static String canonical(String name) {
+        return name == null ? null : name(intern(name));
+    }
+
+    public static String name(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        return chunks[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)];
+    }
+
+    public static int size() {
+        return IDS.size();
+    }
+
+    private static synchronized int add(String name) {
+        Integer existing = IDS.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size++;
+        int chunk = id >>> CHUNK_BITS;
+        String[][] current = chunks;
+        if (chunk == current.length) {
+            String[][] grown = new String[current.length * 2][];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new String[CHUNK_SIZE];
+        }
+        current[chunk][id & (CHUNK_SIZE - 1)] = name;
+        // Publishing the chunks before the id makes the name visible to anyone who sees the id
+        chunks = current;
+        IDS.put(name, id);
+        return id;
+    }
+}
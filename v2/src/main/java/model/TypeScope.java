@@ -0,0 +1,62 @@
+package model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Package and imports of one compilation unit, shared by all classes declared
+ * in it. Enough to turn a simple type name into a fully qualified one with a
+ * few hash lookups, without a symbol solver.
+ */
+public class TypeScope implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // empty for the default package
+    private final String packageName;
+    // simple name -> fully qualified name, from single-type imports
+    private final Map<String, String> singleTypeImports = new HashMap<>();
+    // packages and types whose members are imported with .*
+    private final List<String> onDemandImports = new ArrayList<>();
+
+    public TypeScope(String packageName) {
+        this.packageName = packageName != null ? packageName : "";
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Records an import declaration; for on-demand imports pass the name without .*
+     */
+    public void addImport(String name, boolean onDemand) {
+        if (onDemand) {
+            onDemandImports.add(name);
+        } else {
+            // the first import of a simple name wins, as javac rejects a second one
+            singleTypeImports.putIfAbsent(name.substring(name.lastIndexOf('.') + 1), name);
+        }
+    }
+
+    /**
+     * The fully qualified name imported for a simple name, or null
+     */
+    public String getSingleTypeImport(String simpleName) {
+        return singleTypeImports.get(simpleName);
+    }
+
+    public List<String> getOnDemandImports() {
+        return Collections.unmodifiableList(onDemandImports);
+    }
+
+    /**
+     * The fully qualified name a simple name has when declared in this package
+     */
+    public String qualify(String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+}
@@ -1,34 +1,305 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+/**
+ * The diagram while it is being built. Classes are indexed by simple name
+ * and relationships are appended to an index, so adding and replacing are
+ * cheap from any number of threads. Readers take an immutable snapshot with
+ * freeze(); it is kept until the model changes again.
+ */
 public class UMLModel {
 
-    private final List<ClassModel> classes = new CopyOnWriteArrayList<>();
-    private final List<DependencyModel> relationships = new CopyOnWriteArrayList<>();
+    // classes by simple name, each with its position in the diagram
+    private final Map<String, List<Placed>> classesByName = new ConcurrentHashMap<>();
+    private final AtomicLong nextPosition = new AtomicLong();
+    private final AtomicInteger classCount = new AtomicInteger();
+
+    // lookups from analysis workers share the read lock, adds take the write lock
+    private final RelationshipIndex relationships = new RelationshipIndex();
+    private final ReadWriteLock relationshipLock = new ReentrantReadWriteLock();
+    // set while relationships appended unindexed wait for the first lookup
+    private volatile boolean pendingIndex;
+
+    // bumped after every change; a snapshot is current while its version matches
+    private final AtomicLong version = new AtomicLong();
+    private volatile UMLSnapshot snapshot;
 
     public boolean addClassToDiagram(ClassModel cModel) {
-        return classes.add(cModel);
+        place(cModel, nextPosition.getAndIncrement());
+        changed();
+        return true;
     }
 
     public boolean addRelationshipToDiagram(DependencyModel dModel) {
-        return relationships.add(dModel);
+        relationshipLock.writeLock().lock();
+        try {
+            if (!relationships.add(dModel)) {
+                return false;
+            }
+        } finally {
+            relationshipLock.writeLock().unlock();
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Appends relationships known to be distinct, such as those of a saved
+     * model. They are only indexed for lookups once one is made.
+     */
+    public void addDistinctRelationships(Collection<DependencyModel> distinct) {
+        relationshipLock.writeLock().lock();
+        try {
+            relationships.addAllDistinct(distinct);
+            pendingIndex = relationships.hasPending();
+        } finally {
+            relationshipLock.writeLock().unlock();
+        }
+        changed();
+    }
+
+    /**
+     * Immutable, indexed view of the diagram as it is now. Repeated calls
+     * return the same snapshot until the model is changed.
+     */
+    public UMLSnapshot freeze() {
+        UMLSnapshot current = snapshot;
+        long currentVersion = version.get();
+        if (current != null && current.getVersion() == currentVersion) {
+            return current;
+        }
+
+        List<Placed> placed = new ArrayList<>(classCount.get());
+        for (List<Placed> named : classesByName.values()) {
+            placed.addAll(named);
+        }
+        placed.sort(Comparator.comparingLong(p -> p.position));
+        List<ClassModel> classes = new ArrayList<>(placed.size());
+        for (Placed p : placed) {
+            classes.add(p.model);
+        }
+
+        List<DependencyModel> relationshipList;
+        relationshipLock.readLock().lock();
+        try {
+            relationshipList = new ArrayList<>(relationships.getRelationships());
+        } finally {
+            relationshipLock.readLock().unlock();
+        }
+
+        // A change made while copying leaves the version ahead, so the next call rebuilds
+        current = new UMLSnapshot(classes, relationshipList, currentVersion);
+        snapshot = current;
+        return current;
     }
 
     public List<ClassModel> getClasses() {
-        return List.copyOf(classes); // defensive copy
+        return freeze().getClasses();
     }
 
     public List<DependencyModel> getRelationships() {
-        return List.copyOf(relationships); // defensive copy
+        return freeze().getRelationships();
+    }
+
+    public int getClassCount() {
+        return classCount.get();
+    }
+
+    public int getRelationshipCount() {
+        relationshipLock.readLock().lock();
+        try {
+            return relationships.size();
+        } finally {
+            relationshipLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks in constant time whether the given relationship is already in the diagram
+     */
+    public boolean hasRelationship(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+        indexPending();
+        relationshipLock.readLock().lock();
+        try {
+            return relationships.contains(fromClass.getQualifiedName(), toClass.getQualifiedName(), type);
+        } finally {
+            relationshipLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a relationship stronger than the given type exists between two classes
+     */
+    public boolean hasRelationshipStrongerThan(ClassModel fromClass, ClassModel toClass, DependencyType type) {
+        indexPending();
+        relationshipLock.readLock().lock();
+        try {
+            return relationships.hasStrongerThan(fromClass.getQualifiedName(), toClass.getQualifiedName(), type);
+        } finally {
+            relationshipLock.readLock().unlock();
+        }
     }
 
     public void replaceClass(String className, ClassModel newModel) {
         if (className == null || newModel == null || newModel.getClassName() == null)
             return;
 
-        classes.removeIf(c -> c.getClassName().equals(className));
-        classes.add(newModel);
+        List<Placed> removed = classesByName.remove(className);
+        if (removed != null) {
+            classCount.addAndGet(-removed.size());
+        }
+        place(newModel, nextPosition.getAndIncrement());
+        changed();
+    }
+
+    /**
+     * Replaces one particular class in place, leaving other classes with the
+     * same name alone; adds newModel if oldModel is not in the diagram
+     */
+    public void replaceClass(ClassModel oldModel, ClassModel newModel) {
+        Placed removed = unplace(oldModel);
+        place(newModel, removed != null ? removed.position : nextPosition.getAndIncrement());
+        changed();
+    }
+
+    public boolean removeClass(ClassModel classModel) {
+        boolean removed = unplace(classModel) != null;
+        if (removed) {
+            changed();
+        }
+        return removed;
+    }
+
+    /**
+     * Moves the diagram's classes into the given order, which must hold every one of them exactly once
+     */
+    public void reorderClasses(List<ClassModel> order) {
+        Map<ClassModel, Long> positions = new IdentityHashMap<>(order.size() * 2);
+        for (ClassModel classModel : order) {
+            positions.put(classModel, (long) positions.size());
+        }
+        classesByName.replaceAll((name, named) -> {
+            List<Placed> moved = new ArrayList<>(named.size());
+            for (Placed p : named) {
+                Long position = positions.get(p.model);
+                if (position == null) {
+                    throw new IllegalArgumentException("Class missing from the new order: " + p.model.getQualifiedName());
+                }
+                moved.add(new Placed(position, p.model));
+            }
+            return moved;
+        });
+        nextPosition.set(positions.size());
+        changed();
+    }
+
+    /**
+     * Puts the relationships in the given order, which must hold exactly the current ones
+     */
+    public void reorderRelationships(List<DependencyModel> order) {
+        relationshipLock.writeLock().lock();
+        try {
+            relationships.reorder(order);
+        } finally {
+            relationshipLock.writeLock().unlock();
+        }
+        changed();
+    }
+
+    /**
+     * Removes every relationship leaving one of the classes with the given qualified names
+     */
+    public int removeRelationshipsFrom(Set<String> classNames) {
+        int removed;
+        relationshipLock.writeLock().lock();
+        try {
+            removed = relationships.removeFrom(classNames);
+        } finally {
+            relationshipLock.writeLock().unlock();
+        }
+        if (removed > 0) {
+            changed();
+        }
+        return removed;
+    }
+
+    /**
+     * Catches the index up under the write lock, so lookups under the read lock never modify it.
+     * A concurrent addDistinctRelationships may land after the catch-up; such a lookup then
+     * answers for the model as it was just before that add.
+     */
+    private void indexPending() {
+        if (pendingIndex) {
+            relationshipLock.writeLock().lock();
+            try {
+                relationships.indexPending();
+                pendingIndex = false;
+            } finally {
+                relationshipLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void place(ClassModel classModel, long position) {
+        Placed placed = new Placed(position, classModel);
+        // Lists per name are short and only replaced inside compute, never modified
+        classesByName.compute(classModel.getClassName(), (name, named) -> {
+            if (named == null) {
+                return List.of(placed);
+            }
+            List<Placed> grown = new ArrayList<>(named.size() + 1);
+            grown.addAll(named);
+            grown.add(placed);
+            return grown;
+        });
+        classCount.incrementAndGet();
+    }
+
+    /**
+     * Removes the given instance from the index; returns its entry, or null if it was not there
+     */
+    private Placed unplace(ClassModel classModel) {
+        Placed[] removed = new Placed[1];
+        classesByName.computeIfPresent(classModel.getClassName(), (name, named) -> {
+            List<Placed> kept = new ArrayList<>(named.size());
+            for (Placed p : named) {
+                if (p.model == classModel && removed[0] == null) {
+                    removed[0] = p;
+                } else {
+                    kept.add(p);
+                }
+            }
+            return kept.isEmpty() ? null : kept;
+        });
+        if (removed[0] != null) {
+            classCount.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    private void changed() {
+        version.incrementAndGet();
+    }
+
+    private static final class Placed {
+        private final long position;
+        private final ClassModel model;
+
+        Placed(long position, ClassModel model) {
+            this.position = position;
+            this.model = model;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable view of a UMLModel, made by UMLModel.freeze(). Classes keep the
+ * order they were added in, and lookups by qualified name and the simple
+ * names that need an alias in PlantUML are indexed once, up front. Safe to
+ * share between threads, e.g. shards generated in parallel.
+ */
+public final class UMLSnapshot {
+
+    private final List<ClassModel> classes;
+    private final List<DependencyModel> relationships;
+    // the last class added under each qualified name
+    private final Map<String, ClassModel> classesByQualifiedName;
+    private final Set<String> collidingNames;
+    private final long version;
+    // built on the first diff, then shared
+    private volatile MerkleTree merkleTree;
+
+    UMLSnapshot(List<ClassModel> classes, List<DependencyModel> relationships, long version) {
+        this.classes = Collections.unmodifiableList(classes);
+        this.relationships = Collections.unmodifiableList(relationships);
+        this.version = version;
+
+        Map<String, ClassModel> byQualifiedName = new HashMap<>();
+        Map<String, String> qualifiedNames = new HashMap<>();
+        Set<String> colliding = new HashSet<>();
+        for (ClassModel classModel : classes) {
+            byQualifiedName.put(classModel.getQualifiedName(), classModel);
+            recordName(classModel, qualifiedNames, colliding);
+        }
+        // targets outside the diagram are drawn too, so they can collide as well
+        for (DependencyModel relationship : relationships) {
+            recordName(relationship.getFromClass(), qualifiedNames, colliding);
+            recordName(relationship.getToClass(), qualifiedNames, colliding);
+        }
+        this.classesByQualifiedName = byQualifiedName;
+        this.collidingNames = Collections.unmodifiableSet(colliding);
+    }
+
+    private static void recordName(ClassModel classModel, Map<String, String> qualifiedNames, Set<String> colliding) {
+        String previous = qualifiedNames.putIfAbsent(classModel.getClassName(), classModel.getQualifiedName());
+        if (previous != null && !previous.equals(classModel.getQualifiedName())) {
+            colliding.add(classModel.getClassName());
+        }
+    }
+
+    public List<ClassModel> getClasses() {
+        return classes;
+    }
+
+    public List<DependencyModel> getRelationships() {
+        return relationships;
+    }
+
+    /**
+     * Returns the class with the given qualified name, or null if it is not in the diagram
+     */
+    public ClassModel findClass(String qualifiedName) {
+        return classesByQualifiedName.get(qualifiedName);
+    }
+
+    /**
+     * Simple names shared by classes with different qualified names, including
+     * relationship targets outside the diagram
+     */
+    public Set<String> getCollidingNames() {
+        return collidingNames;
+    }
+
+    /**
+     * Structural hashes of this snapshot, computed once on first use
+     */
+    public MerkleTree getMerkleTree() {
+        MerkleTree tree = merkleTree;
+        if (tree == null) {
+            // racing threads build equal trees, either one may be kept
+            tree = new MerkleTree(this);
+            merkleTree = tree;
+        }
+        return tree;
+    }
+
+    long getVersion() {
+        return version;
+    }
+}
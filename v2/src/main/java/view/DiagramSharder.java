@@ -0,0 +1,195 @@
+package view;
+
+import model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits one UML model into several smaller diagrams that PlantUML can render.
+ *
+ * Every class lands in exactly one shard, and every relationship goes to the
+ * shard of the class it leaves. A relationship pointing into another shard
+ * is kept, so PlantUML shows its target as an empty placeholder, and is
+ * counted as a link between the two shards for the index diagram.
+ */
+public class DiagramSharder {
+
+    public enum Mode {
+        // one shard per Java package, split further when larger than the size limit
+        PACKAGE,
+        // connected parts of the relationship graph, small ones packed together up to the size limit
+        COMPONENT,
+        // consecutive classes, at most the size limit per shard
+        SIZE;
+
+        public static Mode fromString(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown shard mode (package, component or size): " + value);
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final int maxClasses;
+
+    public DiagramSharder(Mode mode, int maxClasses) {
+        if (maxClasses < 1) {
+            throw new IllegalArgumentException("Shard size must be at least 1: " + maxClasses);
+        }
+        this.mode = mode;
+        this.maxClasses = maxClasses;
+    }
+
+    public List<Shard> split(UMLModel umlModel) {
+        UMLSnapshot snapshot = umlModel.freeze();
+        Map<String, List<ClassModel>> groups = switch (mode) {
+            case PACKAGE -> groupByPackage(snapshot.getClasses());
+            case COMPONENT -> groupByComponent(snapshot);
+            case SIZE -> chunk("part", snapshot.getClasses());
+        };
+
+        List<Shard> shards = new ArrayList<>();
+        Map<ClassModel, Shard> shardOfClass = new IdentityHashMap<>();
+        // relationships refer to classes by qualified name, so fall back to the last class of that name
+        Map<String, Shard> shardOfName = new HashMap<>();
+        for (Map.Entry<String, List<ClassModel>> group : groups.entrySet()) {
+            Shard shard = new Shard(group.getKey());
+            for (ClassModel classModel : group.getValue()) {
+                shard.model.addClassToDiagram(classModel);
+                shardOfClass.put(classModel, shard);
+                shardOfName.put(classModel.getQualifiedName(), shard);
+            }
+            shards.add(shard);
+        }
+
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            Shard from = findShard(relationship.getFromClass(), shardOfClass, shardOfName);
+            Shard to = findShard(relationship.getToClass(), shardOfClass, shardOfName);
+            if (from == null) {
+                continue;
+            }
+            from.model.addRelationshipToDiagram(relationship);
+            if (to != null && to != from) {
+                from.links.merge(to, 1, Integer::sum);
+            }
+        }
+        return shards;
+    }
+
+    private static Shard findShard(ClassModel classModel, Map<ClassModel, Shard> shardOfClass,
+            Map<String, Shard> shardOfName) {
+        Shard shard = shardOfClass.get(classModel);
+        return shard != null ? shard : shardOfName.get(classModel.getQualifiedName());
+    }
+
+    private Map<String, List<ClassModel>> groupByPackage(List<ClassModel> classes) {
+        Map<String, List<ClassModel>> packages = new LinkedHashMap<>();
+        for (ClassModel classModel : classes) {
+            String packageName = classModel.getPackageName().isEmpty() ? "default" : classModel.getPackageName();
+            packages.computeIfAbsent(packageName, k -> new ArrayList<>()).add(classModel);
+        }
+
+        Map<String, List<ClassModel>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, List<ClassModel>> entry : packages.entrySet()) {
+            if (entry.getValue().size() <= maxClasses) {
+                groups.put(entry.getKey(), entry.getValue());
+            } else {
+                groups.putAll(chunk(entry.getKey(), entry.getValue()));
+            }
+        }
+        return groups;
+    }
+
+    private Map<String, List<ClassModel>> groupByComponent(UMLSnapshot snapshot) {
+        List<ClassModel> classes = snapshot.getClasses();
+        Map<String, Integer> indexOfName = new HashMap<>();
+        for (ClassModel classModel : classes) {
+            indexOfName.putIfAbsent(classModel.getQualifiedName(), indexOfName.size());
+        }
+
+        // Union-find over qualified class names
+        int[] parent = new int[indexOfName.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            Integer from = indexOfName.get(relationship.getFromClass().getQualifiedName());
+            Integer to = indexOfName.get(relationship.getToClass().getQualifiedName());
+            if (from != null && to != null) {
+                parent[find(parent, from)] = find(parent, to);
+            }
+        }
+
+        // Components in order of their first class
+        Map<Integer, List<ClassModel>> components = new LinkedHashMap<>();
+        for (ClassModel classModel : classes) {
+            int root = find(parent, indexOfName.get(classModel.getQualifiedName()));
+            components.computeIfAbsent(root, k -> new ArrayList<>()).add(classModel);
+        }
+
+        // Pack whole components into shards; one larger than the limit gets a shard of its own
+        Map<String, List<ClassModel>> groups = new LinkedHashMap<>();
+        List<ClassModel> current = new ArrayList<>();
+        for (List<ClassModel> component : components.values()) {
+            if (!current.isEmpty() && current.size() + component.size() > maxClasses) {
+                groups.put("component-" + (groups.size() + 1), current);
+                current = new ArrayList<>();
+            }
+            current.addAll(component);
+        }
+        if (!current.isEmpty()) {
+            groups.put("component-" + (groups.size() + 1), current);
+        }
+        return groups;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]];
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private Map<String, List<ClassModel>> chunk(String prefix, List<ClassModel> classes) {
+        Map<String, List<ClassModel>> chunks = new LinkedHashMap<>();
+        for (int start = 0; start < classes.size(); start += maxClasses) {
+            List<ClassModel> part = classes.subList(start, Math.min(classes.size(), start + maxClasses));
+            chunks.put(prefix + "-" + (chunks.size() + 1), new ArrayList<>(part));
+        }
+        return chunks;
+    }
+
+    /**
+     * One output diagram and the number of its relationships pointing into each other shard
+     */
+    public static class Shard {
+        private final String name;
+        private final UMLModel model = new UMLModel();
+        private final Map<Shard, Integer> links = new LinkedHashMap<>();
+
+        Shard(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UMLModel getModel() {
+            return model;
+        }
+
+        public Map<Shard, Integer> getLinks() {
+            return links;
+        }
+    }
+}
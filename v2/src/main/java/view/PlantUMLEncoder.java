@@ -1,55 +1,280 @@
 package view;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 public class PlantUMLEncoder {
-    private static final String CHARSET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz-_";
+    private static final char[] ENCODE_TABLE =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz-_".toCharArray();
+
+    // Deflater and output buffer reused by every encoding on the same thread
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
 
     public static String encode(String text) {
         byte[] data = text.getBytes(StandardCharsets.UTF_8);
 
-        Deflater deflater = new Deflater(8, true);
-        deflater.setInput(data);
-        deflater.finish();
+        Workspace workspace = acquireWorkspace();
+        try {
+            int length = workspace.deflate(data);
+            return encode64(workspace.buffer, length);
+        } finally {
+            workspace.release();
+        }
+    }
+
+    /**
+     * Applies the PlantUML base64 variant to the first length bytes, writing
+     * 4 chars per 3 bytes into an array sized up front
+     */
+    private static String encode64(byte[] data, int length) {
+        char[] encoded = new char[encodedLength(length)];
+        int fullGroups = length - length % 3;
+        int pos = 0;
+        for (int i = 0; i < fullGroups; i += 3) {
+            pos = encodeGroup(data[i] & 0xFF, data[i + 1] & 0xFF, data[i + 2] & 0xFF, encoded, pos);
+        }
+        encodeTail(data, fullGroups, length - fullGroups, encoded, pos);
+        return new String(encoded);
+    }
+
+    private static int encodedLength(int length) {
+        int tail = length % 3;
+        return length / 3 * 4 + (tail == 0 ? 0 : tail + 1);
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
+    private static int encodeGroup(int b1, int b2, int b3, char[] encoded, int pos) {
+        encoded[pos] = ENCODE_TABLE[b1 >> 2];
+        encoded[pos + 1] = ENCODE_TABLE[((b1 & 0x3) << 4) | (b2 >> 4)];
+        encoded[pos + 2] = ENCODE_TABLE[((b2 & 0xF) << 2) | (b3 >> 6)];
+        encoded[pos + 3] = ENCODE_TABLE[b3 & 0x3F];
+        return pos + 4;
+    }
 
-        while (!deflater.finished()) {
-            int count = deflater.deflate(buffer);
-            outputStream.write(buffer, 0, count);
+    /**
+     * Encodes a trailing group of 1 or 2 bytes into 2 or 3 chars
+     */
+    private static int encodeTail(byte[] data, int off, int count, char[] encoded, int pos) {
+        if (count == 0) {
+            return pos;
+        }
+        int b1 = data[off] & 0xFF;
+        encoded[pos++] = ENCODE_TABLE[b1 >> 2];
+        if (count == 1) {
+            encoded[pos++] = ENCODE_TABLE[(b1 & 0x3) << 4];
+        } else {
+            int b2 = data[off + 1] & 0xFF;
+            encoded[pos++] = ENCODE_TABLE[((b1 & 0x3) << 4) | (b2 >> 4)];
+            encoded[pos++] = ENCODE_TABLE[(b2 & 0xF) << 2];
         }
+        return pos;
+    }
 
-        deflater.end();
-        byte[] deflatedData = outputStream.toByteArray();
-        return encode64(deflatedData);
+    /**
+     * The calling thread's workspace, or a private one if an open
+     * EncodingWriter on this thread is still holding it
+     */
+    private static Workspace acquireWorkspace() {
+        Workspace workspace = WORKSPACE.get();
+        if (workspace.inUse) {
+            workspace = new Workspace(false);
+        }
+        workspace.inUse = true;
+        return workspace;
     }
 
-    private static String encode64(byte[] data) {
-        StringBuilder encoded = new StringBuilder();
-        int i = 0;
-        while (i < data.length) {
-            int b1 = data[i++] & 0xFF;
-            if (i == data.length) {
-                encoded.append(CHARSET.charAt(b1 >> 2));
-                encoded.append(CHARSET.charAt((b1 & 0x3) << 4));
-                break;
+    private static class Workspace {
+        private static final int INITIAL_BUFFER = 8192;
+        // larger buffers are dropped after use so one huge diagram does not pin memory per thread
+        private static final int MAX_RETAINED_BUFFER = 1 << 20;
+
+        private final Deflater deflater = new Deflater(8, true);
+        private final boolean shared;
+        private byte[] buffer = new byte[INITIAL_BUFFER];
+        private boolean inUse;
+
+        Workspace() {
+            this(true);
+        }
+
+        Workspace(boolean shared) {
+            this.shared = shared;
+        }
+
+        /**
+         * Deflates data into buffer, growing it as needed; returns the deflated length
+         */
+        int deflate(byte[] data) {
+            deflater.setInput(data);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return length;
+        }
+
+        void release() {
+            if (!shared) {
+                deflater.end();
+                return;
+            }
+            deflater.reset();
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                buffer = new byte[INITIAL_BUFFER];
             }
-            int b2 = data[i++] & 0xFF;
-            if (i == data.length) {
-                encoded.append(CHARSET.charAt(b1 >> 2));
-                encoded.append(CHARSET.charAt(((b1 & 0x3) << 4) | (b2 >> 4)));
-                encoded.append(CHARSET.charAt((b2 & 0xF) << 2));
-                break;
+            inUse = false;
+        }
+    }
+
+    /**
+     * Returns a writer that deflates and encodes text as it is written.
+     * Closing it yields the same result as encode() on the full text.
+     */
+    public static EncodingWriter newEncodingWriter() {
+        return new EncodingWriter(Long.MAX_VALUE);
+    }
+
+    /**
+     * Like newEncodingWriter(), but gives up once more than maxChars chars
+     * were written: the rest of the text is only counted and getEncoded()
+     * returns null, so an oversized diagram costs at most maxChars of deflating.
+     */
+    public static EncodingWriter newEncodingWriter(long maxChars) {
+        return new EncodingWriter(maxChars);
+    }
+
+    public static class EncodingWriter extends Writer {
+        private final Workspace workspace = acquireWorkspace();
+        private final Encode64OutputStream encoded = new Encode64OutputStream();
+        private final Writer writer = new OutputStreamWriter(
+                new DeflaterOutputStream(encoded, workspace.deflater, 8192), StandardCharsets.UTF_8);
+        private final long maxChars;
+        private long written;
+        private boolean abandoned;
+        private boolean closed;
+
+        private EncodingWriter(long maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (withinLimit(len)) {
+                writer.write(cbuf, off, len);
             }
-            int b3 = data[i++] & 0xFF;
-            encoded.append(CHARSET.charAt(b1 >> 2));
-            encoded.append(CHARSET.charAt(((b1 & 0x3) << 4) | (b2 >> 4)));
-            encoded.append(CHARSET.charAt(((b2 & 0xF) << 2) | (b3 >> 6)));
-            encoded.append(CHARSET.charAt(b3 & 0x3F));
         }
-        return encoded.toString();
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (withinLimit(len)) {
+                writer.write(str, off, len);
+            }
+        }
+
+        private boolean withinLimit(int len) {
+            written += len;
+            if (!abandoned && written > maxChars) {
+                // Hand the Deflater back right away; nothing written so far is needed
+                abandoned = true;
+                workspace.release();
+            }
+            return !abandoned;
+        }
+
+        /**
+         * Number of chars written so far, including those past the limit
+         */
+        public long getWrittenChars() {
+            return written;
+        }
+
+        @Override
+        public void flush() {
+            // Flushing would emit a deflate sync block and change the encoding
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed && !abandoned) {
+                closed = true;
+                try {
+                    writer.close();
+                } finally {
+                    workspace.release();
+                }
+            }
+            closed = true;
+        }
+
+        /**
+         * Returns the encoded diagram, or null if the text exceeded the limit;
+         * only valid after close()
+         */
+        public String getEncoded() {
+            if (!closed) {
+                throw new IllegalStateException("Encoding writer has not been closed");
+            }
+            return abandoned ? null : encoded.result();
+        }
+    }
+
+    /**
+     * Applies the PlantUML base64 variant to a byte stream, carrying
+     * incomplete 3-byte groups over between writes
+     */
+    private static class Encode64OutputStream extends OutputStream {
+        private final StringBuilder encoded = new StringBuilder();
+        private final byte[] pending = new byte[3];
+        private int pendingCount;
+        // deflated chunks arrive up to 8 KB at a time
+        private char[] chunk = new char[4096];
+
+        @Override
+        public void write(int b) {
+            pending[pendingCount++] = (byte) b;
+            if (pendingCount == 3) {
+                int pos = encodeGroup(pending[0] & 0xFF, pending[1] & 0xFF, pending[2] & 0xFF, chunk, 0);
+                encoded.append(chunk, 0, pos);
+                pendingCount = 0;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int end = off + len;
+            // Complete a group left over from the previous write
+            while (pendingCount > 0 && off < end) {
+                write(b[off++]);
+            }
+
+            int fullGroups = (end - off) / 3 * 3;
+            if (chunk.length < fullGroups / 3 * 4) {
+                chunk = new char[fullGroups / 3 * 4];
+            }
+            int pos = 0;
+            for (int i = off; i < off + fullGroups; i += 3) {
+                pos = encodeGroup(b[i] & 0xFF, b[i + 1] & 0xFF, b[i + 2] & 0xFF, chunk, pos);
+            }
+            encoded.append(chunk, 0, pos);
+
+            for (int i = off + fullGroups; i < end; i++) {
+                pending[pendingCount++] = b[i];
+            }
+        }
+
+        String result() {
+            int pos = encodeTail(pending, 0, pendingCount, chunk, 0);
+            pendingCount = 0;
+            return encoded.append(chunk, 0, pos).toString();
+        }
     }
 }
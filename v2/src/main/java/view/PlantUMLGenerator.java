@@ -1,62 +1,243 @@
 package view;
 
 import model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PlantUMLGenerator {
 
+    // colors of the delta diagram written by generateDiff
+    private static final String ADDED_BACKGROUND = "#C8F7C5";
+    private static final String REMOVED_BACKGROUND = "#F7C5C5";
+    private static final String CHANGED_BACKGROUND = "#FFF3B0";
+    private static final String ADDED_COLOR = "#2E7D32";
+    private static final String REMOVED_COLOR = "#C62828";
+
     public String generatePlantUML(UMLModel umlModel) {
         StringBuilder plantUML = new StringBuilder();
+        try {
+            generatePlantUML(umlModel, plantUML);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return plantUML.toString();
+    }
+
+    /**
+     * Streams the diagram to the given target class by class, without
+     * building the whole document in memory
+     */
+    public void generatePlantUML(UMLModel umlModel, Appendable plantUML) throws IOException {
+        generatePlantUML(umlModel.freeze(), plantUML);
+    }
 
+    public void generatePlantUML(UMLSnapshot snapshot, Appendable plantUML) throws IOException {
         // PlantUML header
         plantUML.append("@startuml\n");
         plantUML.append("skinparam classAttributeIconSize 0\n");
         plantUML.append("hide circle\n\n");
 
+        Set<String> collidingNames = snapshot.getCollidingNames();
+
         // Generate classes
-        for (ClassModel classModel : umlModel.getClasses()) {
-            generateClass(plantUML, classModel);
+        for (ClassModel classModel : snapshot.getClasses()) {
+            generateClass(plantUML, classModel, collidingNames);
             plantUML.append("\n");
         }
 
         // Generate relationships
-        for (DependencyModel relationship : umlModel.getRelationships()) {
-            generateRelationship(plantUML, relationship);
+        for (DependencyModel relationship : snapshot.getRelationships()) {
+            generateRelationship(plantUML, relationship, collidingNames);
         }
 
         plantUML.append("@enduml");
-        return plantUML.toString();
     }
 
-    private void generateClass(StringBuilder plantUML, ClassModel classModel) {
-        // Class declaration
-        if (classModel.isInterface()) {
-            plantUML.append("interface ");
-        } else if (classModel.isAbstract()) {
-            plantUML.append("abstract class ");
-        } else {
-            plantUML.append("class ");
+    /**
+     * Writes an overview diagram with one linked box per shard and an arrow
+     * for every pair of shards connected by relationships
+     */
+    public void generateShardIndex(List<DiagramSharder.Shard> shards, List<String> fileNames, Appendable plantUML)
+            throws IOException {
+        plantUML.append("@startuml\n");
+        plantUML.append("hide stereotype\n\n");
+
+        Map<DiagramSharder.Shard, String> ids = new IdentityHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            DiagramSharder.Shard shard = shards.get(i);
+            String id = "shard" + (i + 1);
+            ids.put(shard, id);
+            plantUML.append("rectangle \"**").append(shard.getName()).append("**\\n")
+                    .append(String.valueOf(shard.getModel().getClassCount())).append(" classes, ")
+                    .append(String.valueOf(shard.getModel().getRelationshipCount())).append(" relationships\" as ")
+                    .append(id).append(" [[").append(fileNames.get(i)).append("]]\n");
         }
+        plantUML.append("\n");
 
-        plantUML.append(classModel.getClassName()).append(" {\n");
+        for (DiagramSharder.Shard shard : shards) {
+            for (Map.Entry<DiagramSharder.Shard, Integer> link : shard.getLinks().entrySet()) {
+                plantUML.append(ids.get(shard)).append(" ..> ").append(ids.get(link.getKey()))
+                        .append(" : ").append(String.valueOf(link.getValue())).append("\n");
+            }
+        }
 
-        // Fields
-        for (FieldModel field : classModel.getFields()) {
-            plantUML.append("  ");
-            plantUML.append(field.getVisibility().getVisibility());
+        plantUML.append("@enduml");
+    }
 
-            if (field.isStatic()) {
-                plantUML.append("{static} ");
-            }
+    /**
+     * Writes a delta diagram with only what differs between two runs: new
+     * classes in green, removed ones in red and changed ones in yellow
+     * listing just the members that were added or removed, followed by the
+     * relationships that appeared or disappeared
+     */
+    public void generateDiff(ModelDiff diff, Appendable plantUML) throws IOException {
+        plantUML.append("@startuml\n");
+        plantUML.append("skinparam classAttributeIconSize 0\n");
+        plantUML.append("hide circle\n\n");
 
-            plantUML.append(field.getName())
-                    .append(": ")
-                    .append(field.getReturnType());
+        Set<String> collidingNames = diffCollidingNames(diff);
+
+        for (ClassModel classModel : diff.getAddedClasses()) {
+            generateDiffClass(plantUML, classModel, ADDED_BACKGROUND, collidingNames);
+        }
+        for (ClassModel classModel : diff.getRemovedClasses()) {
+            generateDiffClass(plantUML, classModel, REMOVED_BACKGROUND, collidingNames);
+        }
+        for (ModelDiff.ClassChange change : diff.getChangedClasses()) {
+            generateClassChange(plantUML, change, collidingNames);
+        }
+
+        for (DependencyModel relationship : diff.getAddedRelationships()) {
+            generateDiffRelationship(plantUML, relationship, ADDED_COLOR, collidingNames);
+        }
+        for (DependencyModel relationship : diff.getRemovedRelationships()) {
+            generateDiffRelationship(plantUML, relationship, REMOVED_COLOR + ",dashed", collidingNames);
+        }
+
+        plantUML.append("\nlegend right\n");
+        plantUML.append("  <back:").append(ADDED_BACKGROUND).append(">  added  </back>\n");
+        plantUML.append("  <back:").append(REMOVED_BACKGROUND).append(">  removed  </back>\n");
+        plantUML.append("  <back:").append(CHANGED_BACKGROUND).append(">  changed  </back>\n");
+        plantUML.append("endlegend\n");
+        plantUML.append("@enduml");
+    }
 
-            if (field.getDeclaredValues() != null) {
-                plantUML.append(" = ").append(field.getDeclaredValues());
+    private static Set<String> diffCollidingNames(ModelDiff diff) {
+        Map<String, String> qualifiedNames = new HashMap<>();
+        Set<String> colliding = new HashSet<>();
+        List<ClassModel> drawn = new ArrayList<>(diff.getAddedClasses());
+        drawn.addAll(diff.getRemovedClasses());
+        for (ModelDiff.ClassChange change : diff.getChangedClasses()) {
+            drawn.add(change.getAfter());
+        }
+        for (DependencyModel relationship : diff.getAddedRelationships()) {
+            drawn.add(relationship.getFromClass());
+            drawn.add(relationship.getToClass());
+        }
+        for (DependencyModel relationship : diff.getRemovedRelationships()) {
+            drawn.add(relationship.getFromClass());
+            drawn.add(relationship.getToClass());
+        }
+        for (ClassModel classModel : drawn) {
+            String previous = qualifiedNames.putIfAbsent(classModel.getClassName(), classModel.getQualifiedName());
+            if (previous != null && !previous.equals(classModel.getQualifiedName())) {
+                colliding.add(classModel.getClassName());
             }
+        }
+        return colliding;
+    }
+
+    private void generateDiffClass(Appendable plantUML, ClassModel classModel, String background,
+            Set<String> collidingNames) throws IOException {
+        appendDeclaration(plantUML, classModel, collidingNames);
+        plantUML.append(" ").append(background).append(" {\n");
+        appendMembers(plantUML, classModel);
+        plantUML.append("}\n\n");
+    }
 
+    private void generateClassChange(Appendable plantUML, ModelDiff.ClassChange change, Set<String> collidingNames)
+            throws IOException {
+        appendDeclaration(plantUML, change.getAfter(), collidingNames);
+        plantUML.append(" ").append(CHANGED_BACKGROUND).append(" {\n");
+        if (change.isHeaderChanged()) {
+            plantUML.append("  .. was ");
+            appendDeclaration(plantUML, change.getBefore(), Set.of());
+            plantUML.append(" ..\n");
+        }
+        for (FieldModel field : change.getAddedFields()) {
+            plantUML.append("  <color:").append(ADDED_COLOR).append(">");
+            appendField(plantUML, field);
+            plantUML.append("</color>\n");
+        }
+        for (FieldModel field : change.getRemovedFields()) {
+            plantUML.append("  <color:").append(REMOVED_COLOR).append("><s>");
+            appendField(plantUML, field);
+            plantUML.append("</s></color>\n");
+        }
+        boolean hasFields = !change.getAddedFields().isEmpty() || !change.getRemovedFields().isEmpty();
+        boolean hasMethods = !change.getAddedMethods().isEmpty() || !change.getRemovedMethods().isEmpty();
+        if (hasFields && hasMethods) {
+            plantUML.append("  --\n");
+        }
+        for (MethodModel method : change.getAddedMethods()) {
+            plantUML.append("  <color:").append(ADDED_COLOR).append(">");
+            appendMethod(plantUML, method);
+            plantUML.append("</color>\n");
+        }
+        for (MethodModel method : change.getRemovedMethods()) {
+            plantUML.append("  <color:").append(REMOVED_COLOR).append("><s>");
+            appendMethod(plantUML, method);
+            plantUML.append("</s></color>\n");
+        }
+        plantUML.append("}\n\n");
+    }
+
+    private void generateDiffRelationship(Appendable plantUML, DependencyModel relationship, String style,
+            Set<String> collidingNames) throws IOException {
+        // PlantUML takes the arrow style between its first two line characters, e.g. -[#green]->
+        String arrow = relationship.getType().getArrow();
+        int split = 0;
+        while (split < arrow.length() && arrow.charAt(split) != '-' && arrow.charAt(split) != '.') {
+            split++;
+        }
+        plantUML.append(idOf(relationship.getFromClass(), collidingNames))
+                .append(" ")
+                .append(arrow, 0, split + 1)
+                .append("[").append(style).append("]")
+                .append(arrow, split + 1, arrow.length())
+                .append(" ")
+                .append(idOf(relationship.getToClass(), collidingNames))
+                .append("\n");
+    }
+
+    private static String idOf(ClassModel classModel, Set<String> collidingNames) {
+        if (!collidingNames.contains(classModel.getClassName())) {
+            return classModel.getClassName();
+        }
+        return classModel.getQualifiedName().replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private void generateClass(Appendable plantUML, ClassModel classModel, Set<String> collidingNames) throws IOException {
+        appendDeclaration(plantUML, classModel, collidingNames);
+        plantUML.append(" {\n");
+        appendMembers(plantUML, classModel);
+        plantUML.append("}\n");
+    }
+
+    private static void appendMembers(Appendable plantUML, ClassModel classModel) throws IOException {
+        // Fields
+        for (FieldModel field : classModel.getFields()) {
+            plantUML.append("  ");
+            appendField(plantUML, field);
             plantUML.append("\n");
         }
 
@@ -68,48 +249,86 @@ public class PlantUMLGenerator {
         // Methods (including constructors)
         for (MethodModel method : classModel.getMethods()) {
             plantUML.append("  ");
-            plantUML.append(method.getVisibility().getVisibility());
+            appendMethod(plantUML, method);
+            plantUML.append("\n");
+        }
+    }
 
-            if (method.isStatic()) {
-                plantUML.append("{static} ");
-            }
+    private static void appendDeclaration(Appendable plantUML, ClassModel classModel, Set<String> collidingNames)
+            throws IOException {
+        // Class declaration
+        if (classModel.isInterface()) {
+            plantUML.append("interface ");
+        } else if (classModel.isAbstract()) {
+            plantUML.append("abstract class ");
+        } else {
+            plantUML.append("class ");
+        }
 
-            // NEW: Check if this is a constructor (no return type or return type is empty)
-            boolean isConstructor = method.getReturnType() == null || method.getReturnType().isEmpty();
-            
-            plantUML.append(method.getName()).append("(");
-
-            // Parameters
-            List<ParameterModel> params = method.getParameters();
-            for (int i = 0; i < params.size(); i++) {
-                ParameterModel param = params.get(i);
-                plantUML.append(param.getName())
-                        .append(": ")
-                        .append(param.getDataType());
-                if (i < params.size() - 1) {
-                    plantUML.append(", ");
-                }
-            }
+        if (collidingNames.contains(classModel.getClassName())) {
+            // Same simple name as another class: show the simple name, link by the qualified one
+            plantUML.append("\"").append(classModel.getClassName()).append("\" as ")
+                    .append(idOf(classModel, collidingNames));
+        } else {
+            plantUML.append(classModel.getClassName());
+        }
+    }
+
+    private static void appendField(Appendable plantUML, FieldModel field) throws IOException {
+        plantUML.append(field.getVisibility().getVisibility());
+
+        if (field.isStatic()) {
+            plantUML.append("{static} ");
+        }
+
+        plantUML.append(field.getName())
+                .append(": ")
+                .append(field.getReturnType());
 
-            plantUML.append(")");
-            
-            // NEW: Only add return type for methods, not constructors
-            if (!isConstructor) {
-                plantUML.append(": ").append(method.getReturnType());
+        if (field.getDeclaredValues() != null) {
+            plantUML.append(" = ").append(field.getDeclaredValues());
+        }
+    }
+
+    private static void appendMethod(Appendable plantUML, MethodModel method) throws IOException {
+        plantUML.append(method.getVisibility().getVisibility());
+
+        if (method.isStatic()) {
+            plantUML.append("{static} ");
+        }
+
+        // NEW: Check if this is a constructor (no return type or return type is empty)
+        boolean isConstructor = method.isConstructor();
+        
+        plantUML.append(method.getName()).append("(");
+
+        // Parameters
+        List<ParameterModel> params = method.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            ParameterModel param = params.get(i);
+            plantUML.append(param.getName())
+                    .append(": ")
+                    .append(param.getDataType());
+            if (i < params.size() - 1) {
+                plantUML.append(", ");
             }
-            
-            plantUML.append("\n");
         }
 
-        plantUML.append("}\n");
+        plantUML.append(")");
+        
+        // NEW: Only add return type for methods, not constructors
+        if (!isConstructor) {
+            plantUML.append(": ").append(method.getReturnType());
+        }
     }
 
-    private void generateRelationship(StringBuilder plantUML, DependencyModel relationship) {
-        plantUML.append(relationship.getFromClass().getClassName())
+    private void generateRelationship(Appendable plantUML, DependencyModel relationship, Set<String> collidingNames)
+            throws IOException {
+        plantUML.append(idOf(relationship.getFromClass(), collidingNames))
                 .append(" ")
                 .append(relationship.getType().getArrow())
                 .append(" ")
-                .append(relationship.getToClass().getClassName())
+                .append(idOf(relationship.getToClass(), collidingNames))
                 .append("\n");
     }
 
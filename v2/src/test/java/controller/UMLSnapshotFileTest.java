@@ -0,0 +1,120 @@
+package controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import model.UMLModel;
+import view.PlantUMLGenerator;
+
+/**
+ * Saving an analyzed model and loading it back must give the same diagram
+ */
+class UMLSnapshotFileTest {
+
+    private static final Path SAMPLES = Paths.get("test/resources/data/inputfiles");
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"arrows", "classnotation", ""})
+    void roundTripKeepsTheDiagram(String sample) throws Exception {
+        UMLModel analyzed = analyze(SAMPLES.resolve(sample));
+        Path file = tempDir.resolve("model.umlmodel");
+
+        UMLSnapshotFile.write(analyzed.freeze(), file);
+        UMLModel loaded = UMLSnapshotFile.read(file);
+
+        assertThat(loaded.getClassCount()).isEqualTo(analyzed.getClassCount());
+        assertThat(loaded.getRelationshipCount()).isEqualTo(analyzed.getRelationshipCount());
+        PlantUMLGenerator generator = new PlantUMLGenerator();
+        assertThat(generator.generatePlantUML(loaded)).isEqualTo(generator.generatePlantUML(analyzed));
+    }
+
+    @Test
+    void loadedModelAnswersRelationshipLookups() throws Exception {
+        UMLModel analyzed = analyze(SAMPLES.resolve("arrows"));
+        Path file = tempDir.resolve("model.umlmodel");
+        UMLSnapshotFile.write(analyzed.freeze(), file);
+
+        UMLModel loaded = UMLSnapshotFile.read(file);
+
+        assertThat(loaded.getRelationships()).isNotEmpty().allSatisfy(relationship -> assertThat(
+                loaded.hasRelationship(relationship.getFromClass(), relationship.getToClass(), relationship.getType()))
+                .isTrue());
+    }
+
+    @Test
+    void loadedSnapshotCanBeOverwritten() throws Exception {
+        UMLModel analyzed = analyze(SAMPLES.resolve("arrows"));
+        Path file = tempDir.resolve("model.umlmodel");
+        UMLSnapshotFile.write(analyzed.freeze(), file);
+
+        UMLModel loaded = UMLSnapshotFile.read(file);
+        UMLSnapshotFile.write(loaded.freeze(), file);
+        UMLModel unmapped = UMLSnapshotFile.read(file, false);
+        UMLSnapshotFile.write(unmapped.freeze(), file);
+
+        PlantUMLGenerator generator = new PlantUMLGenerator();
+        assertThat(generator.generatePlantUML(UMLSnapshotFile.read(file))).isEqualTo(generator.generatePlantUML(analyzed));
+    }
+
+    @Test
+    void rejectsFilesThatAreNoSnapshot() throws Exception {
+        Path file = tempDir.resolve("Shape.java");
+        Files.copy(SAMPLES.resolve("classnotation/Shape.java"), file);
+
+        assertThatThrownBy(() -> UMLSnapshotFile.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a model snapshot");
+    }
+
+    @Test
+    void rejectsTruncatedAndCorruptSnapshots() throws Exception {
+        Path file = tempDir.resolve("model.umlmodel");
+        UMLSnapshotFile.write(analyze(SAMPLES.resolve("arrows")).freeze(), file);
+        byte[] saved = Files.readAllBytes(file);
+
+        Path truncated = tempDir.resolve("truncated.umlmodel");
+        Files.write(truncated, Arrays.copyOf(saved, saved.length / 2));
+        assertThatThrownBy(() -> UMLSnapshotFile.read(truncated))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt model snapshot");
+
+        // the count of the first section's items, as a varint of 2^32 - 1
+        byte[] hugeCount = saved.clone();
+        System.arraycopy(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F}, 0, hugeCount, 16, 5);
+        Path corrupt = tempDir.resolve("corrupt.umlmodel");
+        Files.write(corrupt, hugeCount);
+        assertThatThrownBy(() -> UMLSnapshotFile.read(corrupt))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt model snapshot");
+    }
+
+    private static UMLModel analyze(Path input) throws Exception {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(input)) {
+            files = paths.filter(path -> path.toString().endsWith(".java")).sorted().toList();
+        }
+        JavaFileParser parser = new JavaFileParser();
+        for (Path file : files) {
+            parser.parseFile(file);
+        }
+        UMLModel umlModel = parser.getUmlModel();
+        new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+        return umlModel;
+    }
+}
@@ -0,0 +1,218 @@
+package model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import controller.JavaFileParser;
+import controller.RelationshipAnalyzer;
+
+/**
+ * Comparing two snapshots must report exactly the classes, members and
+ * relationships that differ
+ */
+class ModelDiffTest {
+
+    private static final Path SAMPLES = Paths.get("test/resources/data/inputfiles");
+
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"arrows", "classnotation", ""})
+    void snapshotDiffedAgainstItselfIsEmpty(String sample) throws Exception {
+        UMLSnapshot snapshot = analyze(SAMPLES.resolve(sample)).freeze();
+
+        assertThat(ModelDiff.between(snapshot, snapshot).isEmpty()).isTrue();
+        // a second run builds new instances of the same diagram
+        ModelDiff rerun = ModelDiff.between(snapshot, analyze(SAMPLES.resolve(sample)).freeze());
+        assertThat(rerun.isEmpty()).isTrue();
+        assertThat(rerun.getComparedClasses()).isZero();
+    }
+
+    @Test
+    void findsAddedAndRemovedClasses() throws Exception {
+        Path sources = copyOf(SAMPLES.resolve("arrows"));
+        UMLSnapshot before = analyze(sources).freeze();
+        Files.delete(sources.resolve("inheritance/Dog.java"));
+        Files.writeString(sources.resolve("realization/DebitCardPayment.java"),
+                "package v2.test.resources.data.inputfiles.arrows.realization;\n\n"
+                        + "public class DebitCardPayment implements PaymentMethod {\n"
+                        + "    public void pay(double amount) {\n    }\n}\n");
+
+        ModelDiff diff = ModelDiff.between(before, analyze(sources).freeze());
+
+        assertThat(names(diff.getAddedClasses())).containsExactly("DebitCardPayment");
+        assertThat(names(diff.getRemovedClasses())).containsExactly("Dog");
+        assertThat(diff.getChangedClasses()).isEmpty();
+        assertThat(describe(diff.getAddedRelationships())).containsExactly("DebitCardPayment REALIZATION PaymentMethod");
+        assertThat(describe(diff.getRemovedRelationships())).containsExactly("Dog INHERITANCE Animal");
+    }
+
+    @Test
+    void findsChangedMembers() throws Exception {
+        Path sources = copyOf(SAMPLES.resolve("arrows"));
+        UMLSnapshot before = analyze(sources).freeze();
+        Path animal = sources.resolve("inheritance/Animal.java");
+        Files.writeString(animal, Files.readString(animal)
+                .replace("public class Animal", "public abstract class Animal")
+                .replace("protected String name;", "protected String name;\n    protected int age;")
+                .replace("public void speak()", "public void speak(int times)"));
+
+        ModelDiff diff = ModelDiff.between(before, analyze(sources).freeze());
+
+        assertThat(diff.getAddedClasses()).isEmpty();
+        assertThat(diff.getRemovedClasses()).isEmpty();
+        assertThat(diff.getChangedClasses()).singleElement().satisfies(change -> {
+            assertThat(change.getAfter().getClassName()).isEqualTo("Animal");
+            assertThat(change.isHeaderChanged()).isTrue();
+            assertThat(change.getAddedFields()).extracting(FieldModel::getName).containsExactly("age");
+            assertThat(change.getRemovedFields()).isEmpty();
+            assertThat(change.getAddedMethods()).singleElement()
+                    .satisfies(method -> assertThat(method.getParameters()).hasSize(1));
+            assertThat(change.getRemovedMethods()).singleElement()
+                    .satisfies(method -> assertThat(method.getParameters()).isEmpty());
+        });
+        assertThat(diff.getAddedRelationships()).isEmpty();
+        assertThat(diff.getRemovedRelationships()).isEmpty();
+    }
+
+    @Test
+    void findsRelationshipsThatChangedWithoutTheirClass() throws Exception {
+        Path sources = copyOf(SAMPLES.resolve("arrows"));
+        UMLSnapshot before = analyze(sources).freeze();
+        // Student still declares a Course field, but it no longer resolves to a class
+        Files.delete(sources.resolve("association/Course.java"));
+
+        ModelDiff diff = ModelDiff.between(before, analyze(sources).freeze());
+
+        assertThat(names(diff.getRemovedClasses())).containsExactly("Course");
+        assertThat(diff.getChangedClasses()).isEmpty();
+        assertThat(diff.getAddedRelationships()).isEmpty();
+        assertThat(describe(diff.getRemovedRelationships())).containsExactly("Student COMPOSITION Course");
+    }
+
+    @Test
+    void changesToAClassResetItsCachedHashes() {
+        ClassModel classModel = classModel("shop", "Order");
+        long hash = StructuralHash.of(classModel);
+        long nameHash = StructuralHash.nameOf(classModel);
+
+        classModel.addField(new FieldModel(Visibility.PRIVATE, false, false, "int", "total", null));
+        assertThat(StructuralHash.of(classModel)).isNotEqualTo(hash);
+        hash = StructuralHash.of(classModel);
+
+        classModel.addMethod(new MethodModel(Visibility.PUBLIC, false, false, "int", "getTotal"));
+        assertThat(StructuralHash.of(classModel)).isNotEqualTo(hash);
+        hash = StructuralHash.of(classModel);
+
+        classModel.setIsAbstract(true);
+        assertThat(StructuralHash.of(classModel)).isNotEqualTo(hash);
+        hash = StructuralHash.of(classModel);
+
+        classModel.setIsInterface(true);
+        assertThat(StructuralHash.of(classModel)).isNotEqualTo(hash);
+        hash = StructuralHash.of(classModel);
+
+        classModel.setPackageName("store");
+        assertThat(StructuralHash.nameOf(classModel)).isNotEqualTo(nameHash);
+        assertThat(StructuralHash.of(classModel)).isNotEqualTo(hash);
+        nameHash = StructuralHash.nameOf(classModel);
+
+        classModel.setQualifiedName("store.Shop.Order");
+        assertThat(StructuralHash.nameOf(classModel)).isNotEqualTo(nameHash);
+    }
+
+    @Test
+    void classChangedAfterItsHashWasCachedIsReported() {
+        UMLModel before = new UMLModel();
+        before.addClassToDiagram(classModel("shop", "Order"));
+        ClassModel changed = classModel("shop", "Order");
+        StructuralHash.of(changed);
+        changed.addField(new FieldModel(Visibility.PRIVATE, false, false, "int", "total", null));
+        UMLModel after = new UMLModel();
+        after.addClassToDiagram(changed);
+
+        ModelDiff diff = ModelDiff.between(before.freeze(), after.freeze());
+
+        assertThat(diff.getChangedClasses()).singleElement().satisfies(change ->
+                assertThat(change.getAddedFields()).extracting(FieldModel::getName).containsExactly("total"));
+    }
+
+    @Test
+    void comparesRelationshipsOfClassesOutsideTheDiagram() {
+        ClassModel order = classModel("shop", "Order");
+        // only the source of a relationship, never added to the diagram itself
+        ClassModel audit = classModel("ext", "Audit");
+        UMLModel before = new UMLModel();
+        before.addClassToDiagram(order);
+        UMLModel after = new UMLModel();
+        after.addClassToDiagram(order);
+        after.addRelationshipToDiagram(new DependencyModel(audit, order, DependencyType.DEPENDENCY));
+
+        ModelDiff added = ModelDiff.between(before.freeze(), after.freeze());
+        ModelDiff removed = ModelDiff.between(after.freeze(), before.freeze());
+
+        assertThat(added.getAddedClasses()).isEmpty();
+        assertThat(added.getChangedClasses()).isEmpty();
+        assertThat(describe(added.getAddedRelationships())).containsExactly("Audit DEPENDENCY Order");
+        assertThat(removed.getRemovedClasses()).isEmpty();
+        assertThat(describe(removed.getRemovedRelationships())).containsExactly("Audit DEPENDENCY Order");
+        assertThat(ModelDiff.between(after.freeze(), after.freeze()).isEmpty()).isTrue();
+    }
+
+    private static ClassModel classModel(String packageName, String className) {
+        ClassModel classModel = new ClassModel(className);
+        classModel.setPackageName(packageName);
+        return classModel;
+    }
+
+    private static List<String> names(List<ClassModel> classes) {
+        return classes.stream().map(ClassModel::getClassName).toList();
+    }
+
+    private static List<String> describe(List<DependencyModel> relationships) {
+        return relationships.stream()
+                .map(relationship -> relationship.getFromClass().getClassName() + " " + relationship.getType()
+                        + " " + relationship.getToClass().getClassName())
+                .toList();
+    }
+
+    private Path copyOf(Path source) throws Exception {
+        Path target = tempDir.resolve("sources");
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                Path copy = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy);
+                }
+            }
+        }
+        return target;
+    }
+
+    private static UMLModel analyze(Path input) throws Exception {
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(input)) {
+            files = paths.filter(path -> path.toString().endsWith(".java")).sorted().toList();
+        }
+        JavaFileParser parser = new JavaFileParser();
+        for (Path file : files) {
+            parser.parseFile(file);
+        }
+        UMLModel umlModel = parser.getUmlModel();
+        new RelationshipAnalyzer(umlModel).analyzeAllRelationships(parser.getAllClassSummaries());
+        return umlModel;
+    }
+}